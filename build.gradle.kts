@@ -28,4 +28,12 @@ dependencies {
     compileOnly(group = "org.projectlombok", name = "lombok", version = "1.18.34")
     compileOnly(group = "org.allaymc", name = "papi", version = "0.2.0")
     annotationProcessor(group = "org.projectlombok", name = "lombok", version = "1.18.34")
+
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation(group = "org.junit.jupiter", name = "junit-jupiter")
+    testRuntimeOnly(group = "org.junit.platform", name = "junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import me.daoge.allaynpc.command.ANPCCommand;
 import me.daoge.allaynpc.i18n.I18nKeys;
 import me.daoge.allaynpc.listener.NPCEventListener;
 import me.daoge.allaynpc.manager.CapeManager;
+import me.daoge.allaynpc.manager.ConfigManager;
 import me.daoge.allaynpc.manager.DialogManager;
 import me.daoge.allaynpc.manager.NPCManager;
 import me.daoge.allaynpc.manager.SkinManager;
@@ -39,6 +40,9 @@ public class AllayNPC extends Plugin {
     @Getter
     private static AllayNPC instance;
 
+    @Getter
+    private ConfigManager configManager;
+
     @Getter
     private SkinManager skinManager;
 
@@ -79,6 +83,9 @@ public class AllayNPC extends Plugin {
         // Start cooldown cleanup task
         startCooldownCleanupTask();
 
+        // Start spawn queue task
+        startSpawnQueueTask();
+
         // Spawn NPCs for already loaded worlds
         spawnNPCsForLoadedWorlds();
 
@@ -94,6 +101,11 @@ public class AllayNPC extends Plugin {
             npcManager.removeAllNPCs();
         }
 
+        // Stop background skin loading
+        if (skinManager != null) {
+            skinManager.shutdown();
+        }
+
         log.info(I18n.get().tr(I18nKeys.PLUGIN_DISABLED));
     }
 
@@ -132,6 +144,13 @@ public class AllayNPC extends Plugin {
                 log.info(I18n.get().tr(I18nKeys.DIRECTORY_NPCS_CREATED));
             }
 
+            // Create templates directory
+            Path templatesDir = dataFolder.resolve("templates");
+            if (!Files.exists(templatesDir)) {
+                Files.createDirectories(templatesDir);
+                log.info(I18n.get().tr(I18nKeys.DIRECTORY_TEMPLATES_CREATED));
+            }
+
         } catch (IOException e) {
             log.error(I18n.get().tr(I18nKeys.DIRECTORY_CREATE_FAILED), e);
         }
@@ -143,8 +162,12 @@ public class AllayNPC extends Plugin {
     private void initManagers() {
         Path dataFolder = getPluginContainer().dataFolder();
 
+        // Initialize config manager
+        configManager = new ConfigManager(dataFolder.resolve("config.yml"));
+        configManager.loadConfig();
+
         // Initialize skin manager
-        skinManager = new SkinManager(dataFolder.resolve("skins"));
+        skinManager = new SkinManager(dataFolder.resolve("skins"), configManager.getConfig().getSkinCacheBudgetBytes());
         skinManager.loadAllSkins();
         log.info(I18n.get().tr(I18nKeys.MANAGER_SKINS_LOADED, skinManager.getSkinCount()));
 
@@ -159,7 +182,7 @@ public class AllayNPC extends Plugin {
         log.info(I18n.get().tr(I18nKeys.MANAGER_DIALOGS_LOADED, dialogManager.getDialogCount()));
 
         // Initialize NPC manager
-        npcManager = new NPCManager(dataFolder.resolve("npcs"));
+        npcManager = new NPCManager(dataFolder.resolve("npcs"), dataFolder.resolve("templates"), configManager.getConfig());
         npcManager.loadAllNPCConfigs();
         log.info(I18n.get().tr(I18nKeys.MANAGER_NPCS_LOADED, npcManager.getNPCConfigCount()));
     }
@@ -195,6 +218,16 @@ public class AllayNPC extends Plugin {
         log.debug("Started cooldown cleanup task (interval: {} ticks)", COOLDOWN_CLEANUP_INTERVAL);
     }
 
+    /**
+     * Start spawn queue task.
+     * Drains queued NPC spawns every tick within the configured per-tick budget.
+     */
+    private void startSpawnQueueTask() {
+        Server.getInstance().getScheduler().scheduleRepeating(this,
+                () -> npcManager.getSpawnQueue().tick(),
+                1);
+    }
+
     /**
      * Spawn NPCs for all already loaded worlds
      * This is called during plugin enable to handle worlds that were loaded before the plugin
@@ -214,7 +247,19 @@ public class AllayNPC extends Plugin {
         // Remove all NPCs (this will cancel their dimension scheduler tasks)
         npcManager.removeAllNPCs();
 
+        // Reload plugin config
+        configManager.loadConfig();
+
+        // Apply reloaded limits
+        var spawnConfig = configManager.getConfig().getSpawnQueue();
+        npcManager.getSpawnQueue().setLimits(spawnConfig.getMaxPerTick(), spawnConfig.getMaxMillisPerTick());
+        npcManager.getVisibilityManager().setCapConfig(configManager.getConfig().getRenderCap());
+        npcManager.getEmoteBudget().setPerSecond(configManager.getConfig().getEmoteViewerLimit());
+        npcManager.getClickLimiter().setPerSecond(configManager.getConfig().getClickRateLimit());
+        npcManager.getVisibilityManager().setSkinBytesPerTick(configManager.getConfig().getSkinDeliveryBytesPerTick());
+
         // Reload skins
+        skinManager.setBudgetBytes(configManager.getConfig().getSkinCacheBudgetBytes());
         skinManager.loadAllSkins();
         log.info(I18n.get().tr(I18nKeys.MANAGER_SKINS_RELOADED, skinManager.getSkinCount()));
 
@@ -230,7 +275,7 @@ public class AllayNPC extends Plugin {
         npcManager.loadAllNPCConfigs();
         log.info(I18n.get().tr(I18nKeys.MANAGER_NPCS_RELOADED, npcManager.getNPCConfigCount()));
 
-        // Respawn all NPCs (each NPC will start its own dimension scheduler task)
+        // Queue all NPCs for respawning (each NPC will start its own dimension scheduler task)
         npcManager.spawnAllNPCs();
 
         log.info(I18n.get().tr(I18nKeys.PLUGIN_RELOADED));
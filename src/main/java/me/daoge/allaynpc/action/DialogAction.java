@@ -7,6 +7,7 @@ import me.daoge.allaynpc.i18n.I18nKeys;
 import me.daoge.allaynpc.npc.NPC;
 import me.daoge.allaynpc.util.PlaceholderUtil;
 import org.allaymc.api.dialog.Dialog;
+import org.allaymc.api.entity.Entity;
 import org.allaymc.api.entity.interfaces.EntityPlayer;
 import org.allaymc.api.message.I18n;
 import org.allaymc.api.player.Player;
@@ -96,7 +97,7 @@ public class DialogAction implements NPCAction {
         }
 
         // Show dialog (verify NPC entity is still valid)
-        EntityPlayer npcEntity = npc.getEntity();
+        Entity npcEntity = npc.getEntity();
         if (npcEntity == null) {
             log.warn("NPC entity is null, cannot show dialog");
             return;
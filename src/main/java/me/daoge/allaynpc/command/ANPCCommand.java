@@ -2,6 +2,7 @@ package me.daoge.allaynpc.command;
 
 import me.daoge.allaynpc.AllayNPC;
 import me.daoge.allaynpc.config.NPCConfig;
+import me.daoge.allaynpc.config.NPCHeader;
 import me.daoge.allaynpc.form.DialogFormHandler;
 import me.daoge.allaynpc.form.NPCFormHandler;
 import me.daoge.allaynpc.i18n.I18nKeys;
@@ -108,6 +109,11 @@ public class ANPCCommand extends Command {
                     .exec((ctx, player) -> handleDialog(ctx, player), SenderType.PLAYER)
                 .root()
 
+                // /anpc status - Show runtime diagnostics
+                .key("status")
+                    .exec(this::handleStatus)
+                .root()
+
                 // /anpc help - Show help
                 .key("help")
                     .exec(this::handleHelp);
@@ -190,13 +196,13 @@ public class ANPCCommand extends Command {
         sb.append(TextFormat.GREEN).append(I18nUtil.tr(sender, I18nKeys.COMMAND_LIST_HEADER, npcNames.size())).append("\n");
 
         for (String name : npcNames) {
-            NPCConfig config = npcManager.getNPCConfig(name);
+            NPCHeader header = npcManager.getNPCHeader(name);
             NPC npc = npcManager.getNPC(name);
             boolean spawned = npc != null && npc.isSpawned();
 
             sb.append(TextFormat.GRAY).append("- ").append(TextFormat.WHITE).append(name);
-            if (config != null && config.getPosition() != null) {
-                sb.append(TextFormat.GRAY).append(" @ ").append(config.getPosition().getWorld());
+            if (header != null && header.hasPosition()) {
+                sb.append(TextFormat.GRAY).append(" @ ").append(header.world());
             }
             sb.append(spawned ? TextFormat.GREEN + " " + I18nUtil.tr(sender, I18nKeys.COMMAND_LIST_SPAWNED) : TextFormat.RED + " " + I18nUtil.tr(sender, I18nKeys.COMMAND_LIST_NOTSPAWNED));
             sb.append("\n");
@@ -227,7 +233,7 @@ public class ANPCCommand extends Command {
             return ctx.fail();
         }
 
-        var dimension = world.getOverWorld();
+        var dimension = world.getDimension(pos.getDimension());
         if (dimension == null) {
             player.sendMessage(TextFormat.RED + I18nUtil.tr(player, I18nKeys.COMMAND_DIMENSION_NOTFOUND));
             return ctx.fail();
@@ -323,6 +329,54 @@ public class ANPCCommand extends Command {
         return ctx.success();
     }
 
+    /**
+     * Handle status command - Show runtime diagnostics
+     */
+    private CommandResult handleStatus(CommandContext ctx) {
+        var plugin = AllayNPC.getInstance();
+        NPCManager npcManager = plugin.getNpcManager();
+        var skinManager = plugin.getSkinManager();
+        var sender = ctx.getSender();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(TextFormat.GREEN).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_TITLE)).append("\n");
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_NPCS,
+                npcManager.getNPCConfigCount(), npcManager.getLoadedNPCConfigCount(), npcManager.getSpawnedNPCCount())).append("\n");
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_UPDATES,
+                npcManager.getSpawnedNPCCount(NPC.UpdateMode.ACTIVE), npcManager.getSpawnedNPCCount(NPC.UpdateMode.SUSPENDED),
+                npcManager.getSpawnedNPCCount(NPC.UpdateMode.STATIC))).append("\n");
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_LOOK,
+                NPC.getLookUpdatesSent(), NPC.getLookUpdatesSkipped())).append("\n");
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_EMOTES,
+                npcManager.getScheduledEmoteCount(), npcManager.getEmoteBudget().getSentCount(),
+                npcManager.getEmoteBudget().getDroppedCount())).append("\n");
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_CLICKS,
+                npcManager.getClickLimiter().getAcceptedCount(), npcManager.getClickLimiter().getDroppedCount())).append("\n");
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_SKINS,
+                skinManager.getResidentSkinCount(), skinManager.getSkinCount(), skinManager.getUniqueTextureCount(),
+                skinManager.getUniqueGeometryCount(), skinManager.getResidentBytes() / 1024, skinManager.getBudgetBytes() / 1024)).append("\n");
+        var visibility = npcManager.getVisibilityManager();
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_VISIBILITY,
+                visibility.getViewerCount(), visibility.getHiddenCount())).append("\n");
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_SKIN_DELIVERY,
+                visibility.getSkinPendingCount(), visibility.getSkinDeliveredBytes() / 1024)).append("\n");
+        var chunkPins = npcManager.getChunkPinRegistry();
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_CHUNKS,
+                chunkPins.getPinnedChunkCount(), chunkPins.getLoaderCount(), chunkPins.getReferenceCount())).append("\n");
+        var spawnQueue = npcManager.getSpawnQueue();
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_SPAWNQUEUE,
+                spawnQueue.getPendingCount(), spawnQueue.getBatchDone(), spawnQueue.getBatchTotal())).append("\n");
+        for (var shard : npcManager.getShards()) {
+            var dimension = shard.getDimension();
+            sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_STATUS_DIMENSION,
+                    dimension.getWorld().getName(), dimension.getDimensionInfo().dimensionId(), shard.getNpcCount(),
+                    String.format("%.3f", shard.getAverageTickNanos() / 1_000_000.0))).append("\n");
+        }
+
+        sender.sendMessage(sb.toString());
+        return ctx.success();
+    }
+
     /**
      * Handle help command
      */
@@ -339,6 +393,7 @@ public class ANPCCommand extends Command {
         sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_HELP_REMOVE)).append("\n");
         sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_HELP_SKINS)).append("\n");
         sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_HELP_DIALOG)).append("\n");
+        sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_HELP_STATUS)).append("\n");
         sb.append(TextFormat.YELLOW).append(I18nUtil.tr(sender, I18nKeys.COMMAND_HELP_RELOAD)).append("\n");
 
         sender.sendMessage(sb.toString());
@@ -1,27 +1,48 @@
 package me.daoge.allaynpc.config;
 
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
+import org.allaymc.api.utils.identifier.Identifier;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3d;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * NPC configuration class
- * Stores all configuration information for an NPC
+ * Stores all configuration information for an NPC.
+ * Configs are immutable snapshots, edits build a new snapshot with {@link #toBuilder()}
+ * and publish it, so threads reading a config never see a half-applied edit.
  *
  * @author daoge_cmd
  */
-@Data
-@Builder
+@Value
+@Builder(toBuilder = true)
 public class NPCConfig {
 
+    private static final Identifier PLAYER_TYPE = new Identifier("minecraft:player");
+
     /**
      * NPC name (unique identifier, config file name)
      */
     private String name;
 
+    /**
+     * Template this NPC inherits unset options from, empty if none
+     */
+    @Builder.Default
+    private String template = "";
+
+    /**
+     * Entity type identifier, skin, cape, emote and equipment only apply to players
+     */
+    @Builder.Default
+    private String entityType = "minecraft:player";
+
     /**
      * Display name (shown on nametag, supports color codes)
      */
@@ -69,12 +90,42 @@ public class NPCConfig {
     @Builder.Default
     private boolean lookAtPlayer = true;
 
+    /**
+     * How the NPC looks at players when {@link #lookAtPlayer} is enabled
+     */
+    @Builder.Default
+    private LookMode lookMode = LookMode.PER_VIEWER;
+
+    /**
+     * Only send look-at and emotes to viewers with a clear line of sight to the NPC
+     */
+    @Builder.Default
+    private boolean lineOfSight = false;
+
     /**
      * NPC scale (1.0 = normal size)
      */
     @Builder.Default
     private double scale = 1.0;
 
+    /**
+     * Distance (blocks) within which players can see the NPC, 0 = engine tracking range
+     */
+    @Builder.Default
+    private int viewDistance = 0;
+
+    /**
+     * Render priority weight, higher keeps the NPC visible from farther away under a render cap
+     */
+    @Builder.Default
+    private double priority = 1.0;
+
+    /**
+     * How the NPC is rendered
+     */
+    @Builder.Default
+    private RenderMode renderMode = RenderMode.ENTITY;
+
     /**
      * Score tag (displayed below name tag, supports color codes and PAPI)
      */
@@ -94,16 +145,83 @@ public class NPCConfig {
     private int clickCooldown = 20;
 
     /**
-     * List of click actions
+     * Clicks per second each player may trigger on this NPC, counted apart from other NPCs, 0 = global limit
+     */
+    @Builder.Default
+    private int clickRateLimit = 0;
+
+    /**
+     * List of click actions, unmodifiable
      */
     @Builder.Default
-    private List<ActionConfig> actions = new ArrayList<>();
+    private List<ActionConfig> actions = List.of();
+
+    /**
+     * Whether {@link #entityType} names the player entity, resolved on first use
+     */
+    @Getter(lazy = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final boolean playerType = isPlayerIdentifier(entityType);
+
+    /**
+     * Check if the NPC's entity is kept out of the world, so the world never ticks it
+     */
+    public boolean isVirtual() {
+        return renderMode == RenderMode.VIRTUAL;
+    }
+
+    /**
+     * Check if an entity type identifier names the player entity, the namespace defaults to minecraft
+     *
+     * @param entityType entity type identifier, e.g. "player" or "minecraft:player"
+     * @return true for the player entity or an empty type
+     */
+    private static boolean isPlayerIdentifier(String entityType) {
+        if (entityType == null || entityType.isEmpty()) {
+            return true;
+        }
+        try {
+            return PLAYER_TYPE.equals(new Identifier(entityType));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Look mode enum
+     */
+    public enum LookMode {
+        /**
+         * Every viewer sees the NPC looking at themselves
+         */
+        PER_VIEWER,
+        /**
+         * All viewers see the NPC looking at the nearest player
+         */
+        NEAREST
+    }
+
+    /**
+     * NPC render mode enum
+     */
+    public enum RenderMode {
+        /**
+         * Regular entity added to the world, ticked and tracked by the engine
+         */
+        ENTITY,
+        /**
+         * Entity still created, but never added to the world: not ticked, not stored in a chunk,
+         * and only sent to viewers chosen by the plugin
+         */
+        VIRTUAL
+    }
 
     /**
      * Position configuration
      */
-    @Data
-    @Builder
+    @Value
+    @Builder(toBuilder = true)
     public static class PositionConfig {
 
         /**
@@ -112,6 +230,12 @@ public class NPCConfig {
         @Builder.Default
         private String world = "world";
 
+        /**
+         * Dimension ID (0 = overworld, 1 = nether, 2 = the end)
+         */
+        @Builder.Default
+        private int dimension = 0;
+
         /**
          * X coordinate
          */
@@ -167,8 +291,8 @@ public class NPCConfig {
     /**
      * Armor configuration
      */
-    @Data
-    @Builder
+    @Value
+    @Builder(toBuilder = true)
     public static class ArmorConfig {
 
         /**
@@ -206,8 +330,8 @@ public class NPCConfig {
     /**
      * Emote action configuration
      */
-    @Data
-    @Builder
+    @Value
+    @Builder(toBuilder = true)
     public static class EmoteConfig {
 
         /**
@@ -222,19 +346,52 @@ public class NPCConfig {
         @Builder.Default
         private int interval = 100;
 
+        /**
+         * Random offset applied to each interval (ticks), spreads out NPCs sharing an interval
+         */
+        @Builder.Default
+        private int jitter = 0;
+
+        /**
+         * Only viewers within this distance (blocks) receive the emote, 0 = all viewers
+         */
+        @Builder.Default
+        private int radius = 0;
+
+        /**
+         * Emote UUID parsed from {@link #id} on first use, null if the id is empty or invalid
+         */
+        @Getter(lazy = true)
+        @EqualsAndHashCode.Exclude
+        @ToString.Exclude
+        @Nullable
+        private final UUID uuid = parseUuid(id);
+
         /**
          * Whether enabled
          */
         public boolean isEnabled() {
-            return !id.isEmpty() && interval > 0;
+            return getUuid() != null && interval > 0;
+        }
+
+        @Nullable
+        private static UUID parseUuid(String id) {
+            if (id == null || id.isEmpty()) {
+                return null;
+            }
+            try {
+                return UUID.fromString(id);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
         }
     }
 
     /**
      * Action configuration
      */
-    @Data
-    @Builder
+    @Value
+    @Builder(toBuilder = true)
     public static class ActionConfig {
 
         /**
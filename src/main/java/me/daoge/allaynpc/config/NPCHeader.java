@@ -0,0 +1,56 @@
+package me.daoge.allaynpc.config;
+
+/**
+ * Lightweight NPC index entry
+ * Holds only what is needed to decide where an NPC lives, so the full
+ * {@link NPCConfig} can be parsed lazily when its world is loaded
+ *
+ * @param name      NPC name (config file name)
+ * @param world     world name, empty if the NPC has no position
+ * @param dimension dimension ID within the world
+ * @param chunkX    chunk X coordinate
+ * @param chunkZ    chunk Z coordinate
+ * @author daoge_cmd
+ */
+public record NPCHeader(String name, String world, int dimension, int chunkX, int chunkZ) {
+
+    /**
+     * Build header from a full NPC config
+     *
+     * @param config NPC config
+     * @return NPC header
+     */
+    public static NPCHeader of(NPCConfig config) {
+        return of(config.getName(), config.getPosition());
+    }
+
+    /**
+     * Build header from a position
+     *
+     * @param name     NPC name
+     * @param position NPC position, null if none
+     * @return NPC header
+     */
+    public static NPCHeader of(String name, NPCConfig.PositionConfig position) {
+        if (position == null) {
+            return new NPCHeader(name, "", 0, 0, 0);
+        }
+        return new NPCHeader(name, position.getWorld(), position.getDimension(), position.getChunkX(), position.getChunkZ());
+    }
+
+    /**
+     * Check if this NPC has a position
+     */
+    public boolean hasPosition() {
+        return !world.isEmpty();
+    }
+
+    /**
+     * Check if this NPC lives in the given world
+     *
+     * @param worldName world name
+     */
+    public boolean isInWorld(String worldName) {
+        return world.equals(worldName);
+    }
+}
@@ -0,0 +1,125 @@
+package me.daoge.allaynpc.config;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plugin configuration class
+ * Stores global settings loaded from config.yml
+ *
+ * @author daoge_cmd
+ */
+@Data
+@Builder
+public class PluginConfig {
+
+    /**
+     * Maximum bytes of decoded skin textures kept in memory (MB).
+     * Skins used by spawned NPCs are never evicted, so this is a soft limit.
+     */
+    @Builder.Default
+    private int skinCacheBudgetMb = 64;
+
+    /**
+     * Maximum emote packets a player receives per second from all NPCs, 0 = unlimited
+     */
+    @Builder.Default
+    private int emoteViewerLimit = 8;
+
+    /**
+     * Maximum NPC clicks a player may trigger per second, 0 = unlimited
+     */
+    @Builder.Default
+    private int clickRateLimit = 5;
+
+    /**
+     * Skin data each player receives per tick when NPCs are shown to them (KB), 0 = off (default).
+     * Only NPCs shown by the visibility manager are staged (view distance, virtual, render cap),
+     * NPCs spawned by the engine's entity tracking are not. Staged NPCs stay hidden from a player
+     * until their skin is sent, since the skin is part of spawning them.
+     */
+    @Builder.Default
+    private int skinDeliveryKbPerTick = 0;
+
+    /**
+     * Spawn queue configuration
+     */
+    @Builder.Default
+    private SpawnQueueConfig spawnQueue = SpawnQueueConfig.builder().build();
+
+    /**
+     * Per-viewer render cap configuration
+     */
+    @Builder.Default
+    private RenderCapConfig renderCap = RenderCapConfig.builder().build();
+
+    /**
+     * Get skin cache budget in bytes
+     */
+    public long getSkinCacheBudgetBytes() {
+        return (long) skinCacheBudgetMb * 1024 * 1024;
+    }
+
+    /**
+     * Get skin delivery budget per player and tick in bytes
+     */
+    public long getSkinDeliveryBytesPerTick() {
+        return (long) skinDeliveryKbPerTick * 1024;
+    }
+
+    /**
+     * Spawn queue configuration
+     */
+    @Data
+    @Builder
+    public static class SpawnQueueConfig {
+
+        /**
+         * Maximum NPCs spawned per tick
+         */
+        @Builder.Default
+        private int maxPerTick = 20;
+
+        /**
+         * Maximum spawn work per tick (milliseconds)
+         */
+        @Builder.Default
+        private int maxMillisPerTick = 5;
+    }
+
+    /**
+     * Render cap configuration
+     * Limits how many NPCs each viewer sees at once, keeping the nearest ones
+     */
+    @Data
+    @Builder
+    public static class RenderCapConfig {
+
+        /**
+         * Maximum NPCs visible to a viewer, 0 = unlimited
+         */
+        @Builder.Default
+        private int maxVisible = 0;
+
+        /**
+         * Distance (blocks) within which NPCs without a view distance compete for the cap
+         */
+        @Builder.Default
+        private int range = 64;
+
+        /**
+         * Per-world caps overriding {@link #maxVisible} (world name -> cap)
+         */
+        @Builder.Default
+        private Map<String, Integer> worlds = new HashMap<>();
+
+        /**
+         * Per-device caps, applied on top of the world cap (device OS, e.g. ANDROID -> cap)
+         */
+        @Builder.Default
+        private Map<String, Integer> devices = new HashMap<>();
+    }
+}
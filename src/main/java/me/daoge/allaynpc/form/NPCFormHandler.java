@@ -89,6 +89,7 @@ public class NPCFormHandler {
                             .clickCooldown(clickCooldown)
                             .position(NPCConfig.PositionConfig.builder()
                                     .world(location.dimension().getWorld().getName())
+                                    .dimension(location.dimension().getDimensionInfo().dimensionId())
                                     .x(location.x())
                                     .y(location.y())
                                     .z(location.z())
@@ -97,7 +98,7 @@ public class NPCFormHandler {
                                     .build())
                             .armor(NPCConfig.ArmorConfig.builder().build())
                             .emote(NPCConfig.EmoteConfig.builder().build())
-                            .actions(new ArrayList<>())
+                            .actions(List.of())
                             .build();
 
                     // Save and spawn NPC
@@ -197,31 +198,37 @@ public class NPCFormHandler {
                 .input(I18nUtil.tr(player, I18nKeys.FORM_BASIC_SCORETAG), I18nUtil.tr(player, I18nKeys.FORM_BASIC_SCORETAG_PLACEHOLDER), config.getScoreTag() != null ? config.getScoreTag() : "")
                 .input(I18nUtil.tr(player, I18nKeys.FORM_BASIC_SCALE), "1.0", String.valueOf(config.getScale()))
                 .onResponse(responses -> {
+                    // Re-read the current config, it may have changed while the form was open
+                    NPCConfig current = npcManager.getNPCConfig(npcName);
+                    if (current == null) return;
+
                     String displayName = responses.get(0);
-                    boolean alwaysShowName = parseBoolean(responses.get(1), config.isAlwaysShowName());
+                    boolean alwaysShowName = parseBoolean(responses.get(1), current.isAlwaysShowName());
                     int skinIndex = parseInt(responses.get(2), 0);
                     String skinName = (skinIndex > 0 && skinIndex < skinList.size()) ? skinList.get(skinIndex) : "";
                     int capeIndex = parseInt(responses.get(3), 0);
                     String capeName = (capeIndex > 0 && capeIndex < capeList.size()) ? capeList.get(capeIndex) : "";
-                    boolean lookAtPlayer = parseBoolean(responses.get(4), config.isLookAtPlayer());
+                    boolean lookAtPlayer = parseBoolean(responses.get(4), current.isLookAtPlayer());
                     String heldItem = responses.get(5);
-                    int clickCooldown = parseInt(responses.get(6), config.getClickCooldown());
+                    int clickCooldown = parseInt(responses.get(6), current.getClickCooldown());
                     String scoreTag = responses.get(7);
-                    double scale = parseDouble(responses.get(8), config.getScale());
-
-                    // Update config
-                    config.setDisplayName(displayName.isEmpty() ? npcName : displayName);
-                    config.setAlwaysShowName(alwaysShowName);
-                    config.setSkin(skinName);
-                    config.setCape(capeName);
-                    config.setLookAtPlayer(lookAtPlayer);
-                    config.setHeldItem(heldItem);
-                    config.setClickCooldown(clickCooldown);
-                    config.setScoreTag(scoreTag);
-                    config.setScale(scale);
+                    double scale = parseDouble(responses.get(8), current.getScale());
+
+                    // Build updated config
+                    NPCConfig updated = current.toBuilder()
+                            .displayName(displayName.isEmpty() ? npcName : displayName)
+                            .alwaysShowName(alwaysShowName)
+                            .skin(skinName)
+                            .cape(capeName)
+                            .lookAtPlayer(lookAtPlayer)
+                            .heldItem(heldItem)
+                            .clickCooldown(clickCooldown)
+                            .scoreTag(scoreTag)
+                            .scale(scale)
+                            .build();
 
                     // Save config
-                    npcManager.saveNPCConfig(config);
+                    npcManager.updateNPCConfig(updated);
 
                     // Respawn NPC
                     npcManager.removeNPC(npcName);
@@ -254,15 +261,24 @@ public class NPCFormHandler {
                         String.format("%.2f", pos.getZ()), String.format("%.2f", pos.getYaw()), String.format("%.2f", pos.getPitch())));
 
         form.button(I18nUtil.tr(player, I18nKeys.FORM_POSITION_SETTOMINE)).onClick(btn -> {
+            // Re-read the current config, it may have changed while the form was open
+            NPCConfig current = npcManager.getNPCConfig(npcName);
+            if (current == null || current.getPosition() == null) return;
+
             var loc = player.getLocation();
-            pos.setWorld(loc.dimension().getWorld().getName());
-            pos.setX(loc.x());
-            pos.setY(loc.y());
-            pos.setZ(loc.z());
-            pos.setYaw((float) loc.yaw());
-            pos.setPitch((float) loc.pitch());
-
-            npcManager.saveNPCConfig(config);
+            NPCConfig updated = current.toBuilder()
+                    .position(current.getPosition().toBuilder()
+                            .world(loc.dimension().getWorld().getName())
+                            .dimension(loc.dimension().getDimensionInfo().dimensionId())
+                            .x(loc.x())
+                            .y(loc.y())
+                            .z(loc.z())
+                            .yaw((float) loc.yaw())
+                            .pitch((float) loc.pitch())
+                            .build())
+                    .build();
+
+            npcManager.updateNPCConfig(updated);
             npcManager.removeNPC(npcName);
             npcManager.spawnNPC(npcName);
 
@@ -286,13 +302,7 @@ public class NPCFormHandler {
 
         if (config == null) return;
 
-        var armor = config.getArmor();
-        if (armor == null) {
-            armor = NPCConfig.ArmorConfig.builder().build();
-            config.setArmor(armor);
-        }
-
-        final var finalArmor = armor;
+        var armor = config.getArmor() != null ? config.getArmor() : NPCConfig.ArmorConfig.builder().build();
 
         CustomForm form = Forms.custom()
                 .title(I18nUtil.tr(player, I18nKeys.FORM_ARMOR_TITLE, npcName))
@@ -301,12 +311,21 @@ public class NPCFormHandler {
                 .input(I18nUtil.tr(player, I18nKeys.FORM_ARMOR_LEGGINGS), I18nUtil.tr(player, I18nKeys.FORM_ARMOR_LEGGINGS_PLACEHOLDER), armor.getLeggings())
                 .input(I18nUtil.tr(player, I18nKeys.FORM_ARMOR_BOOTS), I18nUtil.tr(player, I18nKeys.FORM_ARMOR_BOOTS_PLACEHOLDER), armor.getBoots())
                 .onResponse(responses -> {
-                    finalArmor.setHelmet(responses.get(0));
-                    finalArmor.setChestplate(responses.get(1));
-                    finalArmor.setLeggings(responses.get(2));
-                    finalArmor.setBoots(responses.get(3));
+                    // Re-read the current config, it may have changed while the form was open
+                    NPCConfig current = npcManager.getNPCConfig(npcName);
+                    if (current == null) return;
+
+                    var currentArmor = current.getArmor() != null ? current.getArmor() : NPCConfig.ArmorConfig.builder().build();
+                    NPCConfig updated = current.toBuilder()
+                            .armor(currentArmor.toBuilder()
+                                    .helmet(responses.get(0))
+                                    .chestplate(responses.get(1))
+                                    .leggings(responses.get(2))
+                                    .boots(responses.get(3))
+                                    .build())
+                            .build();
 
-                    npcManager.saveNPCConfig(config);
+                    npcManager.updateNPCConfig(updated);
                     npcManager.removeNPC(npcName);
                     npcManager.spawnNPC(npcName);
 
@@ -328,13 +347,7 @@ public class NPCFormHandler {
 
         if (config == null) return;
 
-        var emote = config.getEmote();
-        if (emote == null) {
-            emote = NPCConfig.EmoteConfig.builder().build();
-            config.setEmote(emote);
-        }
-
-        final var finalEmote = emote;
+        var emote = config.getEmote() != null ? config.getEmote() : NPCConfig.EmoteConfig.builder().build();
 
         CustomForm form = Forms.custom()
                 .title(I18nUtil.tr(player, I18nKeys.FORM_EMOTE_TITLE, npcName))
@@ -342,10 +355,20 @@ public class NPCFormHandler {
                 .input(I18nUtil.tr(player, I18nKeys.FORM_EMOTE_INTERVAL), "100", String.valueOf(emote.getInterval()))
                 .label(I18nUtil.tr(player, I18nKeys.FORM_EMOTE_LABEL))
                 .onResponse(responses -> {
-                    finalEmote.setId(responses.get(0));
-                    finalEmote.setInterval(parseInt(responses.get(1), finalEmote.getInterval()));
+                    // Re-read the current config, it may have changed while the form was open
+                    NPCConfig current = npcManager.getNPCConfig(npcName);
+                    if (current == null) return;
+
+                    var currentEmote = current.getEmote() != null ? current.getEmote() : NPCConfig.EmoteConfig.builder().build();
+                    NPCConfig updated = current.toBuilder()
+                            .emote(currentEmote.toBuilder()
+                                    .id(responses.get(0))
+                                    .interval(parseInt(responses.get(1), currentEmote.getInterval()))
+                                    .build())
+                            .build();
 
-                    npcManager.saveNPCConfig(config);
+                    // The spawned NPC re-registers its emote trigger with the new settings
+                    npcManager.updateNPCConfig(updated);
                     player.sendMessage(TextFormat.GREEN + I18nUtil.tr(player, I18nKeys.FORM_EMOTE_UPDATED));
                 });
 
@@ -366,8 +389,7 @@ public class NPCFormHandler {
 
         List<NPCConfig.ActionConfig> actions = config.getActions();
         if (actions == null) {
-            actions = new ArrayList<>();
-            config.setActions(actions);
+            actions = List.of();
         }
 
         SimpleForm formBuilder = Forms.simple()
@@ -420,12 +442,13 @@ public class NPCFormHandler {
                             .asPlayer(asPlayer)
                             .build();
 
-                    if (config.getActions() == null) {
-                        config.setActions(new ArrayList<>());
-                    }
-                    config.getActions().add(action);
+                    // Re-read the current config, it may have changed while the form was open
+                    NPCConfig current = npcManager.getNPCConfig(npcName);
+                    if (current == null) return;
+                    List<NPCConfig.ActionConfig> actions = new ArrayList<>(current.getActions());
+                    actions.add(action);
 
-                    npcManager.saveNPCConfig(config);
+                    npcManager.updateNPCConfig(current.toBuilder().actions(List.copyOf(actions)).build());
                     player.sendMessage(TextFormat.GREEN + I18nUtil.tr(player, I18nKeys.FORM_ACTIONS_ADDED));
 
                     // Return to actions menu
@@ -456,8 +479,11 @@ public class NPCFormHandler {
         form.button(I18nUtil.tr(player, I18nKeys.FORM_ACTION_EDIT)).onClick(btn -> openActionEditDetailForm(player, npcName, actionIndex));
 
         form.button(TextFormat.RED + I18nUtil.tr(player, I18nKeys.FORM_ACTION_DELETE)).onClick(btn -> {
-            config.getActions().remove(actionIndex);
-            npcManager.saveNPCConfig(config);
+            NPCConfig current = npcManager.getNPCConfig(npcName);
+            if (current == null || actionIndex >= current.getActions().size()) return;
+            List<NPCConfig.ActionConfig> actions = new ArrayList<>(current.getActions());
+            actions.remove(actionIndex);
+            npcManager.updateNPCConfig(current.toBuilder().actions(List.copyOf(actions)).build());
             player.sendMessage(TextFormat.GREEN + I18nUtil.tr(player, I18nKeys.FORM_ACTIONS_DELETED));
             openActionsMenuForm(player, npcName);
         });
@@ -496,11 +522,17 @@ public class NPCFormHandler {
                     String value = responses.get(1);
                     boolean asPlayer = parseBoolean(responses.get(2), action.isAsPlayer());
 
-                    action.setType(NPCConfig.ActionConfig.ActionType.valueOf(actionTypes.get(typeIndex)));
-                    action.setValue(value);
-                    action.setAsPlayer(asPlayer);
+                    NPCConfig.ActionConfig updated = action.toBuilder()
+                            .type(NPCConfig.ActionConfig.ActionType.valueOf(actionTypes.get(typeIndex)))
+                            .value(value)
+                            .asPlayer(asPlayer)
+                            .build();
+                    NPCConfig current = npcManager.getNPCConfig(npcName);
+                    if (current == null || actionIndex >= current.getActions().size()) return;
+                    List<NPCConfig.ActionConfig> actions = new ArrayList<>(current.getActions());
+                    actions.set(actionIndex, updated);
 
-                    npcManager.saveNPCConfig(config);
+                    npcManager.updateNPCConfig(current.toBuilder().actions(List.copyOf(actions)).build());
                     player.sendMessage(TextFormat.GREEN + I18nUtil.tr(player, I18nKeys.FORM_ACTIONS_UPDATED));
                     openActionsMenuForm(player, npcName);
                 });
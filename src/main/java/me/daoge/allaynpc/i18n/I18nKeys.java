@@ -24,6 +24,7 @@ public class I18nKeys {
     public static final String DIRECTORY_CAPES_CREATED = "allaynpc:directory.capes.created";
     public static final String DIRECTORY_DIALOGS_CREATED = "allaynpc:directory.dialogs.created";
     public static final String DIRECTORY_NPCS_CREATED = "allaynpc:directory.npcs.created";
+    public static final String DIRECTORY_TEMPLATES_CREATED = "allaynpc:directory.templates.created";
     public static final String DIRECTORY_CREATE_FAILED = "allaynpc:directory.create.failed";
 
     // Manager messages
@@ -76,6 +77,21 @@ public class I18nKeys {
     public static final String COMMAND_HELP_REMOVE = "allaynpc:command.help.remove";
     public static final String COMMAND_HELP_SKINS = "allaynpc:command.help.skins";
     public static final String COMMAND_HELP_RELOAD = "allaynpc:command.help.reload";
+    public static final String COMMAND_HELP_STATUS = "allaynpc:command.help.status";
+
+    // Status command
+    public static final String COMMAND_STATUS_TITLE = "allaynpc:command.status.title";
+    public static final String COMMAND_STATUS_NPCS = "allaynpc:command.status.npcs";
+    public static final String COMMAND_STATUS_SKINS = "allaynpc:command.status.skins";
+    public static final String COMMAND_STATUS_UPDATES = "allaynpc:command.status.updates";
+    public static final String COMMAND_STATUS_LOOK = "allaynpc:command.status.look";
+    public static final String COMMAND_STATUS_EMOTES = "allaynpc:command.status.emotes";
+    public static final String COMMAND_STATUS_CLICKS = "allaynpc:command.status.clicks";
+    public static final String COMMAND_STATUS_VISIBILITY = "allaynpc:command.status.visibility";
+    public static final String COMMAND_STATUS_SKIN_DELIVERY = "allaynpc:command.status.skin_delivery";
+    public static final String COMMAND_STATUS_CHUNKS = "allaynpc:command.status.chunks";
+    public static final String COMMAND_STATUS_SPAWNQUEUE = "allaynpc:command.status.spawnqueue";
+    public static final String COMMAND_STATUS_DIMENSION = "allaynpc:command.status.dimension";
 
     // Form - Create
     public static final String FORM_CREATE_TITLE = "allaynpc:form.create.title";
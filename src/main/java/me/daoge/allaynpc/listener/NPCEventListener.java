@@ -15,6 +15,7 @@ import org.allaymc.api.eventbus.event.entity.EntityDamageEvent;
 import org.allaymc.api.eventbus.event.player.PlayerInteractEntityEvent;
 import org.allaymc.api.eventbus.event.player.PlayerPickupArrowEvent;
 import org.allaymc.api.eventbus.event.player.PlayerPickupItemEvent;
+import org.allaymc.api.eventbus.event.server.PlayerQuitEvent;
 import org.allaymc.api.eventbus.event.world.WorldLoadEvent;
 import org.allaymc.api.eventbus.event.world.WorldUnloadEvent;
 
@@ -75,6 +76,11 @@ public class NPCEventListener {
         // Cancel ALL damage to NPC (immune to all damage types)
         event.setCancelled(true);
 
+        // Cancelled fire damage leaves the fire burning, put it out so mob NPCs do not burn in daylight
+        if (entity.isOnFire()) {
+            entity.setOnFireTicks(0);
+        }
+
         // If the attacker is a player, handle NPC click
         var damageContainer = event.getDamageContainer();
         if (damageContainer.getAttacker() instanceof EntityPlayer player) {
@@ -91,13 +97,18 @@ public class NPCEventListener {
     private void handleNPCClick(EntityPlayer player, NPC npc) {
         NPCManager npcManager = AllayNPC.getInstance().getNpcManager();
 
+        // Drop autoclicker bursts before any cooldown bookkeeping
+        if (!npcManager.getClickLimiter().tryAcquire(player, npc)) {
+            return;
+        }
+
         // Check click cooldown
-        if (npcManager.isOnCooldown(player, npc.getName())) {
+        if (npcManager.isOnCooldown(player, npc)) {
             return;
         }
 
         // Record click time
-        npcManager.recordClick(player, npc.getName());
+        npcManager.recordClick(player, npc);
 
         // Execute NPC actions
         executeNPCActions(player, npc);
@@ -179,6 +190,17 @@ public class NPCEventListener {
         }
     }
 
+    /**
+     * Handle player quit event
+     * Despawn NPCs that are not tracked by the engine from the player
+     *
+     * @param event event object
+     */
+    @EventHandler
+    private void onPlayerQuit(PlayerQuitEvent event) {
+        AllayNPC.getInstance().getNpcManager().onPlayerQuit(event.getPlayer());
+    }
+
     /**
      * Handle world load event
      * Spawn all NPCs in the loaded world
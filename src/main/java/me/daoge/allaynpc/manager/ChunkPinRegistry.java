@@ -0,0 +1,136 @@
+package me.daoge.allaynpc.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import org.allaymc.api.math.location.Location3d;
+import org.allaymc.api.world.Dimension;
+import org.allaymc.api.world.chunk.FakeChunkLoader;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chunk pin registry
+ * Keeps NPC chunks loaded with one shared {@link FakeChunkLoader} per chunk,
+ * reference counted by the NPCs standing in it. Loaders are only added to and
+ * removed from the chunk manager when the count goes from 0 to 1 and back.
+ *
+ * @author daoge_cmd
+ */
+@Slf4j
+public class ChunkPinRegistry {
+
+    /**
+     * Chunk radius kept loaded around each pinned chunk
+     */
+    private static final int PIN_RADIUS = 1;
+
+    /**
+     * Active pins, guarded by this
+     */
+    private final Map<PinKey, Pin> pins = new HashMap<>();
+
+    /**
+     * Pin the chunk containing a position
+     *
+     * @param dimension dimension
+     * @param x         block x
+     * @param z         block z
+     * @return key to pass to {@link #unpin(PinKey)}
+     */
+    public synchronized PinKey pin(Dimension dimension, double x, double z) {
+        PinKey key = new PinKey(dimension, (int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4);
+        Pin pin = pins.get(key);
+        if (pin == null) {
+            // First NPC in this chunk, register a loader at the chunk center
+            Location3d center = new Location3d(
+                    (key.chunkX() << 4) + 8, 0, (key.chunkZ() << 4) + 8,
+                    0, 0,
+                    dimension
+            );
+            pin = new Pin(new FakeChunkLoader(() -> center, PIN_RADIUS));
+            dimension.getChunkManager().addChunkLoader(pin.loader);
+            pins.put(key, pin);
+            log.debug("Pinned chunk ({}, {})", key.chunkX(), key.chunkZ());
+        }
+        pin.refCount++;
+        return key;
+    }
+
+    /**
+     * Release a pin, the loader is removed once no NPC uses the chunk anymore
+     *
+     * @param key key returned by {@link #pin(Dimension, double, double)}
+     */
+    public synchronized void unpin(PinKey key) {
+        Pin pin = pins.get(key);
+        if (pin == null) return;
+
+        if (--pin.refCount <= 0) {
+            pins.remove(key);
+            try {
+                key.dimension().getChunkManager().removeChunkLoader(pin.loader);
+            } catch (Exception e) {
+                log.warn("Failed to remove chunk loader at ({}, {}): {}", key.chunkX(), key.chunkZ(), e.getMessage());
+            }
+            log.debug("Unpinned chunk ({}, {})", key.chunkX(), key.chunkZ());
+        }
+    }
+
+    /**
+     * Get number of registered chunk loaders
+     */
+    public synchronized int getLoaderCount() {
+        return pins.size();
+    }
+
+    /**
+     * Get number of distinct chunks kept loaded by all loaders
+     */
+    public synchronized int getPinnedChunkCount() {
+        Set<PinKey> chunks = new HashSet<>();
+        for (PinKey key : pins.keySet()) {
+            for (int dx = -PIN_RADIUS; dx <= PIN_RADIUS; dx++) {
+                for (int dz = -PIN_RADIUS; dz <= PIN_RADIUS; dz++) {
+                    chunks.add(new PinKey(key.dimension(), key.chunkX() + dx, key.chunkZ() + dz));
+                }
+            }
+        }
+        return chunks.size();
+    }
+
+    /**
+     * Get total number of NPC references across all pins
+     */
+    public synchronized int getReferenceCount() {
+        int count = 0;
+        for (Pin pin : pins.values()) {
+            count += pin.refCount;
+        }
+        return count;
+    }
+
+    /**
+     * Pinned chunk identity
+     *
+     * @param dimension dimension
+     * @param chunkX    chunk x
+     * @param chunkZ    chunk z
+     */
+    public record PinKey(Dimension dimension, int chunkX, int chunkZ) {
+    }
+
+    /**
+     * Shared loader with its reference count
+     */
+    private static final class Pin {
+
+        private final FakeChunkLoader loader;
+        private int refCount = 0;
+
+        private Pin(FakeChunkLoader loader) {
+            this.loader = loader;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package me.daoge.allaynpc.manager;
+
+import me.daoge.allaynpc.npc.NPC;
+import org.allaymc.api.entity.interfaces.EntityPlayer;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Click limiter
+ * Limits how many NPC clicks each player may trigger per second, so autoclickers do not
+ * reach the cooldown check and the click actions. Every player has one token bucket for the global
+ * limit, and one per NPC that sets its own limit; clicks beyond them are dropped.
+ * Buckets are touched from several world threads.
+ *
+ * @author daoge_cmd
+ */
+public class ClickLimiter {
+
+    /**
+     * Clicks allowed per player per second, 0 = unlimited
+     */
+    private volatile int perSecond;
+
+    /**
+     * Per-player buckets of the global limit (player UUID -> bucket)
+     */
+    private final TokenBuckets<UUID> playerBuckets = new TokenBuckets<>();
+
+    /**
+     * Per-player buckets of NPCs with their own limit ("uuid_npcName" -> bucket)
+     */
+    private final TokenBuckets<String> npcBuckets = new TokenBuckets<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Create click limiter
+     *
+     * @param perSecond clicks allowed per player per second, 0 = unlimited
+     */
+    public ClickLimiter(int perSecond) {
+        this.perSecond = Math.max(0, perSecond);
+    }
+
+    /**
+     * Update the global rate, existing buckets keep their tokens
+     *
+     * @param perSecond clicks allowed per player per second, 0 = unlimited
+     */
+    public void setPerSecond(int perSecond) {
+        this.perSecond = Math.max(0, perSecond);
+    }
+
+    /**
+     * Take one click from a player's budget
+     *
+     * @param player clicking player
+     * @param npc    clicked NPC, its own rate replaces the global rate if above 0
+     * @return true if the click may be handled
+     */
+    public boolean tryAcquire(EntityPlayer player, NPC npc) {
+        int npcRate = npc.getConfig().getClickRateLimit();
+        boolean allowed;
+        if (npcRate > 0) {
+            // Own bucket per player and NPC, so a low NPC limit does not throttle clicks on other NPCs
+            allowed = npcBuckets.tryTake(player.getUniqueId() + "_" + npc.getName(), npcRate);
+        } else {
+            int rate = perSecond;
+            allowed = rate <= 0 || playerBuckets.tryTake(player.getUniqueId(), rate);
+        }
+
+        if (!allowed) {
+            dropped.increment();
+            return false;
+        }
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * Forget buckets of players that have not clicked for a while
+     */
+    public void cleanup() {
+        playerBuckets.cleanup();
+        npcBuckets.cleanup();
+    }
+
+    /**
+     * Get number of clicks let through
+     */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * Get number of clicks dropped because a player was out of budget
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,195 @@
+package me.daoge.allaynpc.manager;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import me.daoge.allaynpc.config.PluginConfig;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Config Manager
+ * Responsible for loading the global plugin configuration (config.yml)
+ *
+ * @author daoge_cmd
+ */
+@Slf4j
+public class ConfigManager {
+
+    /**
+     * Config file path
+     */
+    private final Path configFile;
+
+    /**
+     * Current plugin config
+     */
+    @Getter
+    private volatile PluginConfig config = PluginConfig.builder().build();
+
+    /**
+     * Create config manager
+     *
+     * @param configFile config file path
+     */
+    public ConfigManager(Path configFile) {
+        this.configFile = configFile;
+    }
+
+    /**
+     * Create a new Yaml instance for thread-safe parsing.
+     *
+     * @return new Yaml instance
+     */
+    private Yaml createYaml() {
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        options.setPrettyFlow(true);
+        return new Yaml(options);
+    }
+
+    /**
+     * Load plugin config, writing the defaults if the file does not exist
+     */
+    public void loadConfig() {
+        if (!Files.exists(configFile)) {
+            this.config = PluginConfig.builder().build();
+            saveConfig(config);
+            return;
+        }
+
+        try (InputStream inputStream = Files.newInputStream(configFile)) {
+            Map<String, Object> data = createYaml().load(inputStream);
+            if (data == null) {
+                log.warn("Empty plugin config, using defaults");
+                this.config = PluginConfig.builder().build();
+                return;
+            }
+
+            this.config = parsePluginConfig(data);
+            log.debug("Loaded plugin config");
+
+        } catch (IOException e) {
+            log.error("Failed to load plugin config", e);
+        } catch (Exception e) {
+            log.error("Failed to parse plugin config", e);
+        }
+    }
+
+    /**
+     * Parse plugin config
+     *
+     * @param data config data
+     * @return plugin config object
+     */
+    @SuppressWarnings("unchecked")
+    private PluginConfig parsePluginConfig(Map<String, Object> data) {
+        PluginConfig.PluginConfigBuilder builder = PluginConfig.builder()
+                .skinCacheBudgetMb(Math.max(0, getInt(data, "skin_cache_budget_mb", 64)))
+                .emoteViewerLimit(Math.max(0, getInt(data, "emote_viewer_limit", 8)))
+                .clickRateLimit(Math.max(0, getInt(data, "click_rate_limit", 5)))
+                .skinDeliveryKbPerTick(Math.max(0, getInt(data, "skin_delivery_kb_per_tick", 0)));
+
+        // Parse spawn queue
+        Object spawnQueueObj = data.get("spawn_queue");
+        if (spawnQueueObj instanceof Map<?, ?> spawnQueueData) {
+            builder.spawnQueue(parseSpawnQueueConfig((Map<String, Object>) spawnQueueData));
+        }
+
+        // Parse render cap
+        Object renderCapObj = data.get("render_cap");
+        if (renderCapObj instanceof Map<?, ?> renderCapData) {
+            builder.renderCap(parseRenderCapConfig((Map<String, Object>) renderCapData));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Parse spawn queue config
+     */
+    private PluginConfig.SpawnQueueConfig parseSpawnQueueConfig(Map<String, Object> data) {
+        return PluginConfig.SpawnQueueConfig.builder()
+                .maxPerTick(Math.max(1, getInt(data, "max_per_tick", 20)))
+                .maxMillisPerTick(Math.max(1, getInt(data, "max_millis_per_tick", 5)))
+                .build();
+    }
+
+    /**
+     * Parse render cap config
+     */
+    private PluginConfig.RenderCapConfig parseRenderCapConfig(Map<String, Object> data) {
+        return PluginConfig.RenderCapConfig.builder()
+                .maxVisible(Math.max(0, getInt(data, "max_visible", 0)))
+                .range(Math.max(1, getInt(data, "range", 64)))
+                .worlds(getIntMap(data, "worlds", false))
+                .devices(getIntMap(data, "devices", true))
+                .build();
+    }
+
+    /**
+     * Save plugin config to file
+     *
+     * @param config plugin config
+     */
+    public void saveConfig(PluginConfig config) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("skin_cache_budget_mb", config.getSkinCacheBudgetMb());
+        data.put("emote_viewer_limit", config.getEmoteViewerLimit());
+        data.put("click_rate_limit", config.getClickRateLimit());
+        data.put("skin_delivery_kb_per_tick", config.getSkinDeliveryKbPerTick());
+
+        // Spawn queue
+        Map<String, Object> spawnQueueData = new LinkedHashMap<>();
+        spawnQueueData.put("max_per_tick", config.getSpawnQueue().getMaxPerTick());
+        spawnQueueData.put("max_millis_per_tick", config.getSpawnQueue().getMaxMillisPerTick());
+        data.put("spawn_queue", spawnQueueData);
+
+        // Render cap
+        Map<String, Object> renderCapData = new LinkedHashMap<>();
+        renderCapData.put("max_visible", config.getRenderCap().getMaxVisible());
+        renderCapData.put("range", config.getRenderCap().getRange());
+        renderCapData.put("worlds", new LinkedHashMap<>(config.getRenderCap().getWorlds()));
+        renderCapData.put("devices", new LinkedHashMap<>(config.getRenderCap().getDevices()));
+        data.put("render_cap", renderCapData);
+
+        try (OutputStream outputStream = Files.newOutputStream(configFile);
+             OutputStreamWriter writer = new OutputStreamWriter(outputStream)) {
+            createYaml().dump(data, writer);
+            log.debug("Saved plugin config");
+        } catch (IOException e) {
+            log.error("Failed to save plugin config", e);
+        }
+    }
+
+    // Helper methods
+    private int getInt(Map<String, Object> data, String key, int defaultValue) {
+        Object value = data.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return defaultValue;
+    }
+
+    private Map<String, Integer> getIntMap(Map<String, Object> data, String key, boolean upperCaseKeys) {
+        Map<String, Integer> result = new HashMap<>();
+        if (data.get(key) instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getValue() instanceof Number number) {
+                    String name = String.valueOf(entry.getKey());
+                    result.put(upperCaseKeys ? name.toUpperCase() : name, Math.max(0, number.intValue()));
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,249 @@
+package me.daoge.allaynpc.manager;
+
+import lombok.Getter;
+import me.daoge.allaynpc.npc.NPC;
+import org.allaymc.api.entity.interfaces.EntityPlayer;
+import org.allaymc.api.player.Player;
+import org.allaymc.api.scheduler.TaskCreator;
+import org.allaymc.api.world.Dimension;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Dimension shard
+ * Runtime registries of the NPCs spawned in one dimension: entity lookup and click cooldowns.
+ * The shard also drives the dimension's visibility pass and skin delivery.
+ * <p>
+ * Thread-safety: the entity lookup and the click cooldowns are concurrent maps. They are usually read by
+ * the dimension's world thread, which fires the interact and damage events, but damage can also be dealt
+ * from other threads (commands, other plugins). Work that must run on the world thread (visibility,
+ * NPC config edits) is posted through a concurrent queue and applied on the next tick.
+ * <p>
+ * The shard also tracks the time NPC update tasks spend on the world thread, shown in diagnostics.
+ *
+ * @author daoge_cmd
+ */
+public class DimensionShard implements TaskCreator {
+
+    /**
+     * Maximum remembered cooldown (milliseconds), older click records are dropped
+     */
+    private static final long COOLDOWN_RETENTION_MILLIS = 60000;
+
+    /**
+     * Dimension this shard belongs to
+     */
+    @Getter
+    private final Dimension dimension;
+
+    /**
+     * Entity runtime ID to NPC
+     */
+    private final Map<Long, NPC> entityToNPC = new ConcurrentHashMap<>();
+
+    /**
+     * Last click time per player and NPC ("uuid_npcName" -> millis)
+     */
+    private final Map<String, Long> clickCooldowns = new ConcurrentHashMap<>();
+
+    /**
+     * Spawned NPCs of this dimension, rebuilt from {@link #entityToNPC} after it changed. World thread only.
+     */
+    private List<NPC> npcs = List.of();
+
+    private volatile boolean npcsChanged = false;
+
+    /**
+     * Per-viewer visibility of this dimension's NPCs
+     */
+    @Getter
+    private final VisibilityManager.DimensionVisibility visibility;
+
+    /**
+     * Changes posted by other threads, applied on the world thread
+     */
+    private final Queue<Runnable> incoming = new ConcurrentLinkedQueue<>();
+
+    /**
+     * NPC update time spent in the current tick (nanoseconds), only touched by the world thread
+     */
+    private long tickNanos = 0;
+
+    /**
+     * Smoothed NPC update time per tick (nanoseconds)
+     */
+    @Getter
+    private volatile double averageTickNanos = 0;
+
+    /**
+     * Whether this shard has been closed
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Create dimension shard
+     *
+     * @param dimension         owning dimension
+     * @param visibilityManager visibility manager deciding which viewers see the NPCs
+     */
+    public DimensionShard(Dimension dimension, VisibilityManager visibilityManager) {
+        this.dimension = dimension;
+        this.visibility = visibilityManager.createDimensionVisibility(dimension);
+    }
+
+    /**
+     * Start ticking this shard on the dimension's world scheduler
+     */
+    public void start() {
+        dimension.getWorld().getScheduler().scheduleRepeating(this, this::tick, 1);
+    }
+
+    /**
+     * Stop this shard, pending changes are dropped
+     */
+    public void close() {
+        closed = true;
+        incoming.clear();
+    }
+
+    @Override
+    public boolean isValid() {
+        return !closed;
+    }
+
+    /**
+     * Register a spawned NPC, may be called from any thread
+     *
+     * @param npc NPC with an entity in this dimension
+     */
+    public void register(NPC npc) {
+        entityToNPC.put(npc.getEntity().getRuntimeId(), npc);
+        npcsChanged = true;
+    }
+
+    /**
+     * Unregister a removed NPC and forget its click cooldowns, may be called from any thread
+     *
+     * @param npc NPC being removed
+     */
+    public void unregister(NPC npc) {
+        if (entityToNPC.remove(npc.getEntity().getRuntimeId(), npc)) {
+            npcsChanged = true;
+        }
+        String suffix = "_" + npc.getName();
+        clickCooldowns.keySet().removeIf(key -> key.endsWith(suffix));
+    }
+
+    /**
+     * Run a change on the world thread on the next tick, may be called from any thread
+     *
+     * @param change change touching world-thread state
+     */
+    public void post(Runnable change) {
+        incoming.add(change);
+    }
+
+    /**
+     * Drop click records older than the longest reasonable cooldown, may be called from any thread
+     */
+    public void cleanupCooldowns() {
+        long threshold = System.currentTimeMillis() - COOLDOWN_RETENTION_MILLIS;
+        clickCooldowns.values().removeIf(lastClick -> lastClick < threshold);
+    }
+
+    /**
+     * Despawn this dimension's NPCs from a player who disconnected, may be called from any thread
+     *
+     * @param player disconnected player
+     */
+    public void forgetViewer(Player player) {
+        incoming.add(() -> visibility.forgetViewer(player));
+    }
+
+    /**
+     * Get number of NPCs registered in this shard
+     */
+    public int getNpcCount() {
+        return entityToNPC.size();
+    }
+
+    /**
+     * Get NPC by entity runtime ID, may be called from any thread
+     *
+     * @param runtimeId entity runtime ID
+     * @return NPC, null if the entity is not an NPC
+     */
+    @Nullable
+    public NPC getNPC(long runtimeId) {
+        return entityToNPC.get(runtimeId);
+    }
+
+    /**
+     * Check player click cooldown, may be called from any thread
+     *
+     * @param player player
+     * @param npc    clicked NPC
+     * @return whether on cooldown
+     */
+    public boolean isOnCooldown(EntityPlayer player, NPC npc) {
+        // Use UUID instead of RuntimeId for persistent tracking across reconnects
+        Long lastClick = clickCooldowns.get(player.getUniqueId() + "_" + npc.getName());
+        if (lastClick == null) {
+            return false;
+        }
+
+        int cooldownMs = npc.getConfig().getClickCooldown() * 50; // tick to milliseconds
+        return System.currentTimeMillis() - lastClick < cooldownMs;
+    }
+
+    /**
+     * Record player click time, may be called from any thread
+     *
+     * @param player player
+     * @param npc    clicked NPC
+     */
+    public void recordClick(EntityPlayer player, NPC npc) {
+        clickCooldowns.put(player.getUniqueId() + "_" + npc.getName(), System.currentTimeMillis());
+    }
+
+    /**
+     * Add time spent by an NPC update task. World thread only.
+     *
+     * @param nanos elapsed time in nanoseconds
+     */
+    public void addTickNanos(long nanos) {
+        tickNanos += nanos;
+    }
+
+    /**
+     * Apply posted changes, run the visibility pass and fold the last tick's update time into the average
+     */
+    private void tick() {
+        drain();
+        if (npcsChanged) {
+            // Reset first, a change made while copying is picked up next tick
+            npcsChanged = false;
+            npcs = List.copyOf(entityToNPC.values());
+        }
+        visibility.tick(npcs);
+
+        // Exponential moving average over roughly the last second
+        averageTickNanos += (tickNanos - averageTickNanos) / 20;
+        tickNanos = 0;
+    }
+
+    /**
+     * Apply changes posted by other threads
+     */
+    private void drain() {
+        Runnable change;
+        while ((change = incoming.poll()) != null) {
+            change.run();
+        }
+    }
+}
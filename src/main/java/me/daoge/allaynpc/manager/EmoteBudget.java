@@ -0,0 +1,84 @@
+package me.daoge.allaynpc.manager;
+
+import org.allaymc.api.player.Player;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Emote budget
+ * Limits how many emote packets each viewer receives per second, summed over all NPCs.
+ * Every viewer has a token bucket refilled at the configured rate; emotes beyond it are dropped
+ * for that viewer only. Buckets are touched from several world threads.
+ *
+ * @author daoge_cmd
+ */
+public class EmoteBudget {
+
+    /**
+     * Emote packets allowed per viewer per second, 0 = unlimited
+     */
+    private volatile int perSecond;
+
+    /**
+     * Per-viewer buckets
+     */
+    private final TokenBuckets<Player> buckets = new TokenBuckets<>();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Create emote budget
+     *
+     * @param perSecond emote packets allowed per viewer per second, 0 = unlimited
+     */
+    public EmoteBudget(int perSecond) {
+        this.perSecond = Math.max(0, perSecond);
+    }
+
+    /**
+     * Update the per-viewer rate, existing buckets keep their tokens
+     *
+     * @param perSecond emote packets allowed per viewer per second, 0 = unlimited
+     */
+    public void setPerSecond(int perSecond) {
+        this.perSecond = Math.max(0, perSecond);
+    }
+
+    /**
+     * Take one emote packet from a viewer's budget
+     *
+     * @param viewer viewer about to receive an emote
+     * @return true if the emote may be sent
+     */
+    public boolean tryAcquire(Player viewer) {
+        int rate = perSecond;
+        if (rate > 0 && !buckets.tryTake(viewer, rate)) {
+            dropped.increment();
+            return false;
+        }
+        sent.increment();
+        return true;
+    }
+
+    /**
+     * Forget buckets of viewers that have not received emotes for a while
+     */
+    public void cleanup() {
+        buckets.cleanup();
+    }
+
+    /**
+     * Get number of emote packets sent
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * Get number of emote packets dropped because a viewer was out of budget
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
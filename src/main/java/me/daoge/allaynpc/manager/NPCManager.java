@@ -3,26 +3,50 @@ package me.daoge.allaynpc.manager;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import me.daoge.allaynpc.config.NPCConfig;
+import me.daoge.allaynpc.config.NPCHeader;
+import me.daoge.allaynpc.config.PluginConfig;
+import me.daoge.allaynpc.npc.EmoteWheel;
 import me.daoge.allaynpc.npc.NPC;
+import me.daoge.allaynpc.util.ItemUtil;
 import org.allaymc.api.entity.Entity;
 import org.allaymc.api.entity.interfaces.EntityPlayer;
+import org.allaymc.api.player.Player;
+import org.allaymc.api.server.Server;
+import org.allaymc.api.world.Dimension;
+import org.allaymc.api.world.World;
 import org.jetbrains.annotations.Nullable;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 /**
  * NPC Manager
  * Responsible for NPC lifecycle management, config loading and storage
+ * <p>
+ * NPC configs may name a template from the templates directory. Options the NPC does not set
+ * are taken from the template, and unchanged armor, emote and action configs are shared with
+ * the template instead of being parsed again for every NPC.
  *
  * @author daoge_cmd
  */
@@ -35,33 +59,124 @@ public class NPCManager {
     private final Path npcsDirectory;
 
     /**
-     * NPC config cache (NPC name -> NPC config)
+     * Template directory path
+     */
+    private final Path templatesDirectory;
+
+    /**
+     * Loaded templates (template name -> template)
+     */
+    private volatile Map<String, NPCTemplate> templates = new ConcurrentHashMap<>();
+
+    /**
+     * Interned strings repeated across many configs, such as world names and item IDs
+     */
+    private final Map<String, String> stringPool = new ConcurrentHashMap<>();
+
+    /**
+     * NPC header index (NPC name -> NPC header), covers every NPC on disk
+     */
+    private volatile Map<String, NPCHeader> npcHeaders = new ConcurrentHashMap<>();
+
+    /**
+     * Materialized NPC config cache (NPC name -> NPC config)
+     * Only holds configs of loaded worlds and configs requested on demand
      */
     @Getter
     private volatile Map<String, NPCConfig> npcConfigs = new ConcurrentHashMap<>();
 
     /**
-     * Spawned NPCs (NPC name -> NPC instance)
+     * Spawned NPCs (NPC name -> NPC instance), global index used by commands and forms.
+     * The NPC's shard is found through the dimension of its entity.
      */
     private final Map<String, NPC> spawnedNPCs = new ConcurrentHashMap<>();
 
     /**
-     * Entity to NPC mapping for O(1) lookup (entity runtimeId -> NPC instance)
+     * Runtime registries of each dimension (dimension -> shard)
+     */
+    private final Map<Dimension, DimensionShard> shards = new ConcurrentHashMap<>();
+
+    /**
+     * Emote timing wheels (dimension -> wheel)
+     */
+    private final Map<Dimension, EmoteWheel> emoteWheels = new ConcurrentHashMap<>();
+
+    /**
+     * Shared chunk loaders keeping NPC chunks loaded
+     */
+    @Getter
+    private final ChunkPinRegistry chunkPinRegistry = new ChunkPinRegistry();
+
+    /**
+     * Queue spreading bulk spawns over several ticks
+     */
+    @Getter
+    private final SpawnQueue spawnQueue;
+
+    /**
+     * Per-viewer visibility (view distance and render caps)
+     */
+    @Getter
+    private final VisibilityManager visibilityManager;
+
+    /**
+     * Per-viewer emote packet budget shared by all NPCs
+     */
+    @Getter
+    private final EmoteBudget emoteBudget;
+
+    /**
+     * Per-player click rate limit shared by all NPCs
+     */
+    @Getter
+    private final ClickLimiter clickLimiter;
+
+    /**
+     * Incremented whenever the set of spawned NPCs or their visibility settings change
+     */
+    private final AtomicLong spawnVersion = new AtomicLong();
+
+    /**
+     * Plain YAML scalars read as numbers when building NPC headers
+     */
+    private static final Pattern NUMBER = Pattern.compile("[-+]?(\\d+\\.?\\d*|\\.\\d+)([eE][-+]?\\d+)?");
+
+    /**
+     * Marker for NPC header values that need a full load
      */
-    private final Map<Long, NPC> entityToNPC = new ConcurrentHashMap<>();
+    private static final Object UNRESOLVED = new Object();
 
     /**
-     * Player click cooldown records (playerUUID_npcName -> last click time)
+     * Values written for options that are left out of a config at their default,
+     * used when such an option must override a template
      */
-    private final Map<String, Long> clickCooldowns = new ConcurrentHashMap<>();
+    private static final Map<String, Object> UNSET_VALUES = Map.of(
+            "entity_type", "minecraft:player",
+            "line_of_sight", false,
+            "view_distance", 0,
+            "click_rate_limit", 0,
+            "priority", 1.0,
+            "render_mode", "entity",
+            "armor", Map.of(),
+            "emote", Map.of("id", ""),
+            "actions", List.of()
+    );
 
     /**
      * Create NPC manager
      *
-     * @param npcsDirectory NPC directory path
+     * @param npcsDirectory      NPC directory path
+     * @param templatesDirectory template directory path
+     * @param pluginConfig       plugin configuration
      */
-    public NPCManager(Path npcsDirectory) {
+    public NPCManager(Path npcsDirectory, Path templatesDirectory, PluginConfig pluginConfig) {
         this.npcsDirectory = npcsDirectory;
+        this.templatesDirectory = templatesDirectory;
+        var spawnConfig = pluginConfig.getSpawnQueue();
+        this.spawnQueue = new SpawnQueue(this, spawnConfig.getMaxPerTick(), spawnConfig.getMaxMillisPerTick());
+        this.visibilityManager = new VisibilityManager(this, pluginConfig.getRenderCap(), pluginConfig.getSkinDeliveryBytesPerTick());
+        this.emoteBudget = new EmoteBudget(pluginConfig.getEmoteViewerLimit());
+        this.clickLimiter = new ClickLimiter(pluginConfig.getClickRateLimit());
     }
 
     /**
@@ -77,16 +192,23 @@ public class NPCManager {
     }
 
     /**
-     * Load all NPC configs using atomic replacement pattern.
+     * Build the NPC header index using atomic replacement pattern.
+     * Full configs are not kept here, they are materialized per world in {@link #onWorldLoad(String)}.
      */
     public void loadAllNPCConfigs() {
-        // Create new map for atomic replacement
-        Map<String, NPCConfig> newConfigs = new ConcurrentHashMap<>();
+        // Templates first, headers may take their position from a template
+        stringPool.clear();
+        ItemUtil.clearCache();
+        loadAllTemplates();
+
+        // Create new maps for atomic replacement
+        Map<String, NPCHeader> newHeaders = new ConcurrentHashMap<>();
 
         if (!Files.exists(npcsDirectory)) {
             log.warn("NPCs directory does not exist: {}", npcsDirectory);
-            // Atomically replace with empty map
-            this.npcConfigs = newConfigs;
+            // Atomically replace with empty maps
+            this.npcHeaders = newHeaders;
+            this.npcConfigs = new ConcurrentHashMap<>();
             return;
         }
 
@@ -97,64 +219,378 @@ public class NPCManager {
             for (Path path : stream) {
                 String fileName = path.getFileName().toString();
                 String npcName = fileName.replace(".yml", "");
-                loadNPCConfig(path, npcName, yaml, newConfigs);
+                loadNPCHeader(path, npcName, yaml, newHeaders);
             }
         } catch (IOException e) {
             log.error("Failed to load NPC configs from directory: {}", npcsDirectory, e);
         }
 
         // Atomic replacement - other threads will see either old or new map, never empty
-        this.npcConfigs = newConfigs;
-        log.info("Loaded {} NPC configs", newConfigs.size());
+        this.npcHeaders = newHeaders;
+        this.npcConfigs = new ConcurrentHashMap<>();
+        log.info("Indexed {} NPC configs", newHeaders.size());
+    }
+
+    /**
+     * Load all templates using atomic replacement pattern.
+     * Templates may themselves name a parent template.
+     */
+    @SuppressWarnings("unchecked")
+    private void loadAllTemplates() {
+        Map<String, Map<String, Object>> rawTemplates = new HashMap<>();
+
+        if (Files.exists(templatesDirectory)) {
+            Yaml yaml = createYaml();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(templatesDirectory, "*.yml")) {
+                for (Path path : stream) {
+                    String templateName = path.getFileName().toString().replace(".yml", "");
+                    try (InputStream inputStream = Files.newInputStream(path)) {
+                        Object data = yaml.load(inputStream);
+                        if (data instanceof Map<?, ?> map) {
+                            rawTemplates.put(templateName, (Map<String, Object>) map);
+                        } else {
+                            log.warn("Empty NPC template: {}", templateName);
+                        }
+                    } catch (Exception e) {
+                        log.error("Failed to load NPC template: {}", templateName, e);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Failed to load NPC templates from directory: {}", templatesDirectory, e);
+            }
+        }
+
+        Map<String, NPCTemplate> newTemplates = new ConcurrentHashMap<>();
+        for (String templateName : rawTemplates.keySet()) {
+            resolveTemplate(templateName, rawTemplates, newTemplates, new HashSet<>());
+        }
+
+        // Atomic replacement - other threads will see either old or new map, never empty
+        this.templates = newTemplates;
+        if (!newTemplates.isEmpty()) {
+            log.info("Loaded {} NPC templates", newTemplates.size());
+        }
+    }
+
+    /**
+     * Resolve a template and its parents
+     *
+     * @param templateName template name
+     * @param rawTemplates raw template data (template name -> data)
+     * @param resolved     already resolved templates
+     * @param visiting     templates being resolved, used to detect cycles
+     * @return resolved template, null if missing or part of a cycle
+     */
+    @Nullable
+    private NPCTemplate resolveTemplate(String templateName, Map<String, Map<String, Object>> rawTemplates,
+                                        Map<String, NPCTemplate> resolved, Set<String> visiting) {
+        NPCTemplate template = resolved.get(templateName);
+        if (template != null) {
+            return template;
+        }
+
+        Map<String, Object> data = rawTemplates.get(templateName);
+        if (data == null) {
+            log.warn("Unknown NPC template: {}", templateName);
+            return null;
+        }
+        if (!visiting.add(templateName)) {
+            log.warn("NPC template {} inherits from itself", templateName);
+            return null;
+        }
+
+        String parentName = getString(data, "template", "");
+        NPCTemplate parent = parentName.isEmpty() ? null : resolveTemplate(parentName, rawTemplates, resolved, visiting);
+
+        // Configs are immutable, armor, emote and actions can be shared by every NPC using the template
+        NPCConfig config = parseNPCConfig(templateName, data, parent);
+
+        template = new NPCTemplate(parent != null ? mergeTemplateData(parent.data(), data) : data, config);
+        resolved.put(templateName, template);
+        return template;
+    }
+
+    /**
+     * Overlay own options on inherited ones, top-level keys replace inherited keys as a whole
+     *
+     * @param inherited inherited options
+     * @param own       own options
+     * @return merged options
+     */
+    private static Map<String, Object> mergeTemplateData(Map<String, Object> inherited, Map<String, Object> own) {
+        Map<String, Object> merged = new LinkedHashMap<>(inherited);
+        merged.putAll(own);
+        merged.remove("template");
+        return merged;
+    }
+
+    /**
+     * Get the template an NPC config refers to
+     *
+     * @param data NPC config data
+     * @return template, null if none or unknown
+     */
+    @Nullable
+    private NPCTemplate getTemplate(Map<String, Object> data) {
+        String templateName = getString(data, "template", "");
+        if (templateName.isEmpty()) {
+            return null;
+        }
+
+        NPCTemplate template = templates.get(templateName);
+        if (template == null) {
+            log.warn("Unknown NPC template: {}", templateName);
+        }
+        return template;
+    }
+
+    /**
+     * Intern a string repeated across many configs
+     *
+     * @param value string
+     * @return shared instance with the same content
+     */
+    private String intern(String value) {
+        if (value.isEmpty()) {
+            return "";
+        }
+        String existing = stringPool.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Intern an item ID and resolve it up front, so invalid IDs are reported at load
+     * and spawning reuses the resolved item type
+     *
+     * @param itemId item ID
+     * @return interned item ID
+     */
+    private String internItem(String itemId) {
+        ItemUtil.resolve(itemId);
+        return intern(itemId);
     }
 
     /**
-     * Load a single NPC config from file into target map
+     * Load a single NPC header from file into target map.
+     * Only the template and position options are read, see {@link #readHeaderData(Path, Yaml)}.
      *
      * @param path      config file path
      * @param npcName   NPC name
      * @param yaml      YAML parser instance
-     * @param targetMap target map to put config into
+     * @param targetMap target map to put header into
      */
-    private void loadNPCConfig(Path path, String npcName, Yaml yaml, Map<String, NPCConfig> targetMap) {
-        try (InputStream inputStream = Files.newInputStream(path)) {
-            Map<String, Object> data = yaml.load(inputStream);
+    @SuppressWarnings("unchecked")
+    private void loadNPCHeader(Path path, String npcName, Yaml yaml, Map<String, NPCHeader> targetMap) {
+        try {
+            Map<String, Object> data = readHeaderData(path, yaml);
+            if (data == null) {
+                // Fall back to loading the whole file
+                try (InputStream inputStream = Files.newInputStream(path)) {
+                    data = yaml.load(inputStream);
+                }
+            }
             if (data == null) {
                 log.warn("Empty NPC config: {}", npcName);
                 return;
             }
 
-            NPCConfig config = parseNPCConfig(npcName, data);
-            targetMap.put(npcName, config);
+            // Only the position is read here, everything else is parsed on world load
+            NPCTemplate template = getTemplate(data);
+            Object positionObj = data.containsKey("position") || template == null
+                    ? data.get("position")
+                    : template.data().get("position");
+            NPCHeader header = NPCHeader.of(npcName, positionObj instanceof Map<?, ?> positionData
+                    ? parsePositionConfig((Map<String, Object>) positionData)
+                    : null);
+
+            targetMap.put(npcName, header);
+            log.debug("Indexed NPC config: {}", npcName);
+
+        } catch (IOException e) {
+            log.error("Failed to load NPC config: {}", npcName, e);
+        } catch (Exception e) {
+            log.error("Failed to parse NPC config: {}", npcName, e);
+        }
+    }
+
+    /**
+     * Read the template and position options of an NPC config without building the rest of it.
+     * The file is walked as a stream of parser events, other options are skipped without being constructed.
+     *
+     * @param path config file path
+     * @param yaml YAML parser instance
+     * @return "template" and "position" entries as a full load would return them, or null if the file
+     * is empty or uses YAML features this reader does not resolve (anchors, merge keys, tags)
+     * @throws IOException if the file cannot be read
+     */
+    @Nullable
+    private static Map<String, Object> readHeaderData(Path path, Yaml yaml) throws IOException {
+        try (Reader reader = new UnicodeReader(Files.newInputStream(path))) {
+            Iterator<Event> events = yaml.parse(reader).iterator();
+            Event event = events.next();
+            while (event instanceof StreamStartEvent || event instanceof DocumentStartEvent) {
+                event = events.next();
+            }
+            if (!(event instanceof MappingStartEvent)) {
+                return null;
+            }
+
+            Map<String, Object> data = new HashMap<>();
+            while (!((event = events.next()) instanceof MappingEndEvent)) {
+                if (!(event instanceof ScalarEvent key) || key.getTag() != null || key.getValue().equals("<<")) {
+                    return null;
+                }
+
+                Event value = events.next();
+                switch (key.getValue()) {
+                    case "template", "position" -> {
+                        Object parsed = readHeaderValue(value, events);
+                        if (parsed == UNRESOLVED) {
+                            return null;
+                        }
+                        data.put(key.getValue(), parsed);
+                    }
+                    default -> skipNode(value, events);
+                }
+            }
+            return data;
+        }
+    }
+
+    /**
+     * Read a scalar or a mapping of scalars
+     *
+     * @param first  first event of the value
+     * @param events remaining events
+     * @return value, or {@link #UNRESOLVED}
+     */
+    private static Object readHeaderValue(Event first, Iterator<Event> events) {
+        if (first instanceof ScalarEvent scalar) {
+            return scalar.getTag() != null ? UNRESOLVED : resolveScalar(scalar);
+        }
+        if (!(first instanceof MappingStartEvent)) {
+            return UNRESOLVED;
+        }
+
+        Map<String, Object> map = new HashMap<>();
+        Event event;
+        while (!((event = events.next()) instanceof MappingEndEvent)) {
+            Event value = events.next();
+            if (!(event instanceof ScalarEvent key) || !(value instanceof ScalarEvent scalar)
+                    || key.getTag() != null || scalar.getTag() != null) {
+                return UNRESOLVED;
+            }
+            map.put(key.getValue(), resolveScalar(scalar));
+        }
+        return map;
+    }
+
+    /**
+     * Resolve a scalar to null, a number or a string, like the YAML core schema does for the options read here
+     */
+    @Nullable
+    private static Object resolveScalar(ScalarEvent scalar) {
+        String value = scalar.getValue();
+        if (scalar.getScalarStyle() != DumperOptions.ScalarStyle.PLAIN) {
+            return value;
+        }
+        if (value.isEmpty() || value.equals("~") || value.equalsIgnoreCase("null")) {
+            return null;
+        }
+        if (NUMBER.matcher(value).matches()) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return Double.parseDouble(value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Skip the rest of a node
+     *
+     * @param first  first event of the node
+     * @param events remaining events
+     */
+    private static void skipNode(Event first, Iterator<Event> events) {
+        if (!(first instanceof CollectionStartEvent)) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            Event event = events.next();
+            if (event instanceof CollectionStartEvent) {
+                depth++;
+            } else if (event instanceof CollectionEndEvent) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Parse the full NPC config from disk
+     *
+     * @param npcName NPC name
+     * @return NPC config, null if the file is missing or invalid
+     */
+    @Nullable
+    private NPCConfig materializeNPCConfig(String npcName) {
+        Path path = npcsDirectory.resolve(npcName + ".yml");
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            Map<String, Object> data = createYaml().load(inputStream);
+            if (data == null) {
+                log.warn("Empty NPC config: {}", npcName);
+                return null;
+            }
+
+            NPCConfig config = parseNPCConfig(npcName, data, getTemplate(data));
             log.debug("Loaded NPC config: {}", npcName);
+            return config;
 
         } catch (IOException e) {
             log.error("Failed to load NPC config: {}", npcName, e);
         } catch (Exception e) {
             log.error("Failed to parse NPC config: {}", npcName, e);
         }
+        return null;
     }
 
     /**
      * Parse NPC config
      *
-     * @param npcName NPC name
-     * @param data    config data
+     * @param npcName  NPC name
+     * @param ownData  config data
+     * @param template template to inherit unset options from, null if none
      * @return NPC config object
      */
     @SuppressWarnings("unchecked")
-    private NPCConfig parseNPCConfig(String npcName, Map<String, Object> data) {
+    private NPCConfig parseNPCConfig(String npcName, Map<String, Object> ownData, @Nullable NPCTemplate template) {
+        Map<String, Object> data = template != null ? mergeTemplateData(template.data(), ownData) : ownData;
+
         NPCConfig.NPCConfigBuilder builder = NPCConfig.builder()
                 .name(npcName)
+                .template(getString(ownData, "template", ""))
+                .entityType(intern(getString(data, "entity_type", "minecraft:player")))
                 .displayName(getString(data, "display_name", "NPC"))
                 .alwaysShowName(getBoolean(data, "always_show_name", true))
-                .skin(getString(data, "skin", ""))
-                .cape(getString(data, "cape", ""))
-                .heldItem(getString(data, "held_item", ""))
+                .skin(intern(getString(data, "skin", "")))
+                .cape(intern(getString(data, "cape", "")))
+                .heldItem(internItem(getString(data, "held_item", "")))
                 .lookAtPlayer(getBoolean(data, "look_at_player", true))
+                .lookMode(parseLookMode(getString(data, "look_mode", "per_viewer")))
+                .lineOfSight(getBoolean(data, "line_of_sight", false))
                 .scale(clampScale(getDouble(data, "scale", 1.0)))
+                .viewDistance(Math.max(0, getInt(data, "view_distance", 0)))
+                .priority(clampPriority(getDouble(data, "priority", 1.0)))
+                .renderMode(parseRenderMode(getString(data, "render_mode", "entity")))
                 .scoreTag(getString(data, "score_tag", ""))
-                .clickCooldown(clampClickCooldown(getInt(data, "click_cooldown", 20)));
+                .clickCooldown(clampClickCooldown(getInt(data, "click_cooldown", 20)))
+                .clickRateLimit(Math.max(0, getInt(data, "click_rate_limit", 0)));
 
         // Parse position
         Object positionObj = data.get("position");
@@ -162,21 +598,30 @@ public class NPCManager {
             builder.position(parsePositionConfig((Map<String, Object>) positionData));
         }
 
+        // Armor, emote and actions not set by the NPC itself are shared with the template
+        boolean inherit = template != null;
+
         // Parse armor
         Object armorObj = data.get("armor");
-        if (armorObj instanceof Map<?, ?> armorData) {
+        if (inherit && !ownData.containsKey("armor")) {
+            builder.armor(template.config().getArmor());
+        } else if (armorObj instanceof Map<?, ?> armorData) {
             builder.armor(parseArmorConfig((Map<String, Object>) armorData));
         }
 
         // Parse emote
         Object emoteObj = data.get("emote");
-        if (emoteObj instanceof Map<?, ?> emoteData) {
+        if (inherit && !ownData.containsKey("emote")) {
+            builder.emote(template.config().getEmote());
+        } else if (emoteObj instanceof Map<?, ?> emoteData) {
             builder.emote(parseEmoteConfig((Map<String, Object>) emoteData));
         }
 
         // Parse action list
         Object actionsObj = data.get("actions");
-        if (actionsObj instanceof List<?> actionsList) {
+        if (inherit && !ownData.containsKey("actions")) {
+            builder.actions(template.config().getActions());
+        } else if (actionsObj instanceof List<?> actionsList) {
             List<NPCConfig.ActionConfig> actions = new ArrayList<>();
             for (Object actionObj : actionsList) {
                 if (actionObj instanceof Map<?, ?> actionData) {
@@ -186,7 +631,7 @@ public class NPCManager {
                     }
                 }
             }
-            builder.actions(actions);
+            builder.actions(List.copyOf(actions));
         }
 
         return builder.build();
@@ -197,7 +642,8 @@ public class NPCManager {
      */
     private NPCConfig.PositionConfig parsePositionConfig(Map<String, Object> data) {
         return NPCConfig.PositionConfig.builder()
-                .world(getString(data, "world", "world"))
+                .world(intern(getString(data, "world", "world")))
+                .dimension(Math.max(0, getInt(data, "dimension", 0)))
                 .x(getDouble(data, "x", 0))
                 .y(getDouble(data, "y", 0))
                 .z(getDouble(data, "z", 0))
@@ -211,10 +657,10 @@ public class NPCManager {
      */
     private NPCConfig.ArmorConfig parseArmorConfig(Map<String, Object> data) {
         return NPCConfig.ArmorConfig.builder()
-                .helmet(getString(data, "helmet", ""))
-                .chestplate(getString(data, "chestplate", ""))
-                .leggings(getString(data, "leggings", ""))
-                .boots(getString(data, "boots", ""))
+                .helmet(internItem(getString(data, "helmet", "")))
+                .chestplate(internItem(getString(data, "chestplate", "")))
+                .leggings(internItem(getString(data, "leggings", "")))
+                .boots(internItem(getString(data, "boots", "")))
                 .build();
     }
 
@@ -224,7 +670,6 @@ public class NPCManager {
     private NPCConfig.EmoteConfig parseEmoteConfig(Map<String, Object> data) {
         String emoteId = getString(data, "id", "");
 
-        // Validate UUID format if not empty
         if (!emoteId.isEmpty()) {
             try {
                 java.util.UUID.fromString(emoteId);
@@ -237,9 +682,35 @@ public class NPCManager {
         return NPCConfig.EmoteConfig.builder()
                 .id(emoteId)
                 .interval(getInt(data, "interval", 100))
+                .jitter(Math.max(0, getInt(data, "jitter", 0)))
+                .radius(Math.max(0, getInt(data, "radius", 0)))
                 .build();
     }
 
+    /**
+     * Parse look mode, falling back to per-viewer
+     */
+    private NPCConfig.LookMode parseLookMode(String value) {
+        try {
+            return NPCConfig.LookMode.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown look mode: {}, using per_viewer", value);
+            return NPCConfig.LookMode.PER_VIEWER;
+        }
+    }
+
+    /**
+     * Parse render mode, falling back to a regular entity
+     */
+    private NPCConfig.RenderMode parseRenderMode(String value) {
+        try {
+            return NPCConfig.RenderMode.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown render mode: {}, using entity", value);
+            return NPCConfig.RenderMode.ENTITY;
+        }
+    }
+
     /**
      * Parse action config
      */
@@ -264,13 +735,90 @@ public class NPCManager {
 
     /**
      * Save NPC config to file
+     * Options of templated NPCs are only written where they differ from the template.
      *
      * @param config NPC config
      */
     public void saveNPCConfig(NPCConfig config) {
         Path configFile = npcsDirectory.resolve(config.getName() + ".yml");
 
+        Map<String, Object> data = serializeNPCConfig(config);
+        String templateName = config.getTemplate();
+        if (!templateName.isEmpty()) {
+            // An unknown template keeps its name, all options are written out
+            NPCTemplate template = templates.get(templateName);
+            data = diffFromTemplate(templateName, data,
+                    template != null ? serializeNPCConfig(template.config()) : Map.of());
+        }
+
+        try (OutputStream outputStream = Files.newOutputStream(configFile);
+             OutputStreamWriter writer = new OutputStreamWriter(outputStream)) {
+            // Create method-local Yaml instance for thread safety
+            Yaml yaml = createYaml();
+            yaml.dump(data, writer);
+            npcHeaders.put(config.getName(), NPCHeader.of(config));
+            log.debug("Saved NPC config: {}", config.getName());
+        } catch (IOException e) {
+            log.error("Failed to save NPC config: {}", config.getName(), e);
+        }
+    }
+
+    /**
+     * Publish an edited NPC config and save it.
+     * The new snapshot replaces the old one for lookups and for the spawned NPC as a whole;
+     * options applied at spawn (skin, equipment, position...) need a respawn to show.
+     *
+     * @param config new NPC config snapshot
+     */
+    public void updateNPCConfig(NPCConfig config) {
+        registerNPCConfig(config);
+
+        // Re-classify the spawned NPC, its dynamic features may have changed
+        NPC npc = spawnedNPCs.get(config.getName());
+        if (npc != null) {
+            npc.updateConfig(config);
+            spawnVersion.incrementAndGet();
+        }
+        saveNPCConfig(config);
+    }
+
+    /**
+     * Keep only the options that differ from the template
+     *
+     * @param templateName template name
+     * @param data         serialized NPC config
+     * @param inherited    serialized template config
+     * @return options to write
+     */
+    private static Map<String, Object> diffFromTemplate(String templateName, Map<String, Object> data,
+                                                        Map<String, Object> inherited) {
+        Map<String, Object> own = new LinkedHashMap<>();
+        own.put("template", templateName);
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            if (!Objects.equals(entry.getValue(), inherited.get(entry.getKey()))) {
+                own.put(entry.getKey(), entry.getValue());
+            }
+        }
+        // Options left out because they are at their default must still override the template
+        for (String key : inherited.keySet()) {
+            if (!data.containsKey(key) && UNSET_VALUES.containsKey(key)) {
+                own.put(key, UNSET_VALUES.get(key));
+            }
+        }
+        return own;
+    }
+
+    /**
+     * Convert NPC config to YAML data
+     *
+     * @param config NPC config
+     * @return config data
+     */
+    private Map<String, Object> serializeNPCConfig(NPCConfig config) {
         Map<String, Object> data = new LinkedHashMap<>();
+        if (!config.isPlayerType()) {
+            data.put("entity_type", config.getEntityType());
+        }
         data.put("display_name", config.getDisplayName());
         data.put("always_show_name", config.isAlwaysShowName());
         data.put("skin", config.getSkin());
@@ -280,6 +828,7 @@ public class NPCManager {
         if (config.getPosition() != null) {
             Map<String, Object> positionData = new LinkedHashMap<>();
             positionData.put("world", config.getPosition().getWorld());
+            positionData.put("dimension", config.getPosition().getDimension());
             positionData.put("x", config.getPosition().getX());
             positionData.put("y", config.getPosition().getY());
             positionData.put("z", config.getPosition().getZ());
@@ -301,7 +850,20 @@ public class NPCManager {
         }
 
         data.put("look_at_player", config.isLookAtPlayer());
+        data.put("look_mode", config.getLookMode().name().toLowerCase());
+        if (config.isLineOfSight()) {
+            data.put("line_of_sight", true);
+        }
         data.put("scale", config.getScale());
+        if (config.getViewDistance() > 0) {
+            data.put("view_distance", config.getViewDistance());
+        }
+        if (config.getPriority() != 1.0) {
+            data.put("priority", config.getPriority());
+        }
+        if (config.getRenderMode() != NPCConfig.RenderMode.ENTITY) {
+            data.put("render_mode", config.getRenderMode().name().toLowerCase());
+        }
         data.put("score_tag", config.getScoreTag());
 
         // Emote
@@ -309,10 +871,19 @@ public class NPCManager {
             Map<String, Object> emoteData = new LinkedHashMap<>();
             emoteData.put("id", config.getEmote().getId());
             emoteData.put("interval", config.getEmote().getInterval());
+            if (config.getEmote().getJitter() > 0) {
+                emoteData.put("jitter", config.getEmote().getJitter());
+            }
+            if (config.getEmote().getRadius() > 0) {
+                emoteData.put("radius", config.getEmote().getRadius());
+            }
             data.put("emote", emoteData);
         }
 
         data.put("click_cooldown", config.getClickCooldown());
+        if (config.getClickRateLimit() > 0) {
+            data.put("click_rate_limit", config.getClickRateLimit());
+        }
 
         // Actions
         if (config.getActions() != null && !config.getActions().isEmpty()) {
@@ -328,16 +899,7 @@ public class NPCManager {
             }
             data.put("actions", actionsList);
         }
-
-        try (OutputStream outputStream = Files.newOutputStream(configFile);
-             OutputStreamWriter writer = new OutputStreamWriter(outputStream)) {
-            // Create method-local Yaml instance for thread safety
-            Yaml yaml = createYaml();
-            yaml.dump(data, writer);
-            log.debug("Saved NPC config: {}", config.getName());
-        } catch (IOException e) {
-            log.error("Failed to save NPC config: {}", config.getName(), e);
-        }
+        return data;
     }
 
     /**
@@ -351,6 +913,7 @@ public class NPCManager {
         try {
             if (Files.exists(configFile)) {
                 Files.delete(configFile);
+                npcHeaders.remove(npcName);
                 npcConfigs.remove(npcName);
                 return true;
             }
@@ -435,11 +998,29 @@ public class NPCManager {
     }
 
     /**
-     * Spawn all NPCs
+     * Clamp render priority to valid range (0.01-100.0)
+     *
+     * @param value raw value
+     * @return clamped value
+     */
+    private double clampPriority(double value) {
+        if (value < 0.01) {
+            log.warn("Priority {} is too small, setting to 0.01", value);
+            return 0.01;
+        }
+        if (value > 100.0) {
+            log.warn("Priority {} exceeds maximum (100.0), setting to 100.0", value);
+            return 100.0;
+        }
+        return value;
+    }
+
+    /**
+     * Queue all NPCs of every loaded world for spawning
      */
     public void spawnAllNPCs() {
-        for (NPCConfig config : npcConfigs.values()) {
-            spawnNPC(config.getName());
+        for (var world : Server.getInstance().getWorldPool().getWorlds().values()) {
+            onWorldLoad(world.getName());
         }
     }
 
@@ -450,7 +1031,7 @@ public class NPCManager {
      * @return whether spawn was successful
      */
     public boolean spawnNPC(String npcName) {
-        NPCConfig config = npcConfigs.get(npcName);
+        NPCConfig config = getNPCConfig(npcName);
         if (config == null) {
             log.warn("NPC config not found: {}", npcName);
             return false;
@@ -464,10 +1045,11 @@ public class NPCManager {
         NPC npc = new NPC(config);
         if (npc.spawn()) {
             spawnedNPCs.put(npcName, npc);
-            // Add to entity mapping for O(1) lookup
-            if (npc.getEntity() != null) {
-                entityToNPC.put(npc.getEntity().getRuntimeId(), npc);
+            // Add to the dimension's entity mapping for O(1) lookup
+            if (npc.getShard() != null) {
+                npc.getShard().register(npc);
             }
+            spawnVersion.incrementAndGet();
             return true;
         }
 
@@ -480,37 +1062,76 @@ public class NPCManager {
      * @param npcName NPC name
      */
     public void removeNPC(String npcName) {
+        spawnQueue.remove(npcName);
         NPC npc = spawnedNPCs.remove(npcName);
         if (npc != null) {
-            // Remove from entity mapping
-            if (npc.getEntity() != null) {
-                entityToNPC.remove(npc.getEntity().getRuntimeId());
+            // Remove from entity mapping and clean up cooldown records for this NPC
+            if (npc.getShard() != null) {
+                npc.getShard().unregister(npc);
             }
             npc.remove();
-            // Clean up cooldown records for this NPC
-            cleanupCooldownsForNPC(npcName);
+            spawnVersion.incrementAndGet();
         }
     }
 
-    /**
-     * Clean up cooldown records for a specific NPC
-     *
-     * @param npcName NPC name
-     */
-    private void cleanupCooldownsForNPC(String npcName) {
-        String suffix = "_" + npcName;
-        clickCooldowns.entrySet().removeIf(entry -> entry.getKey().endsWith(suffix));
-    }
-
     /**
      * Remove all NPCs
      */
     public void removeAllNPCs() {
+        spawnQueue.clear();
         for (NPC npc : spawnedNPCs.values()) {
             npc.remove();
         }
         spawnedNPCs.clear();
-        entityToNPC.clear();
+        spawnVersion.incrementAndGet();
+
+        shards.values().forEach(DimensionShard::close);
+        shards.clear();
+
+        emoteWheels.values().forEach(EmoteWheel::close);
+        emoteWheels.clear();
+    }
+
+    /**
+     * Get the emote wheel of a dimension, starting it on first use
+     *
+     * @param dimension dimension
+     * @return emote wheel
+     */
+    public EmoteWheel getEmoteWheel(Dimension dimension) {
+        return emoteWheels.computeIfAbsent(dimension, key -> {
+            EmoteWheel wheel = new EmoteWheel(key);
+            wheel.start();
+            return wheel;
+        });
+    }
+
+    /**
+     * Get the runtime shard of a dimension, starting it on first use
+     *
+     * @param dimension dimension
+     * @return dimension shard
+     */
+    public DimensionShard getShard(Dimension dimension) {
+        return shards.computeIfAbsent(dimension, key -> {
+            DimensionShard shard = new DimensionShard(key, visibilityManager);
+            log.debug("Started NPC shard for dimension {} of world {}", key.getDimensionInfo().dimensionId(), key.getWorld().getName());
+            shard.start();
+            return shard;
+        });
+    }
+
+    /**
+     * Get scheduled emote trigger count across all dimensions
+     *
+     * @return scheduled emote count
+     */
+    public int getScheduledEmoteCount() {
+        int count = 0;
+        for (EmoteWheel wheel : emoteWheels.values()) {
+            count += wheel.getScheduledCount();
+        }
+        return count;
     }
 
     /**
@@ -533,18 +1154,40 @@ public class NPCManager {
     @Nullable
     public NPC getNPCByEntity(Entity entity) {
         if (entity == null) return null;
-        return entityToNPC.get(entity.getRuntimeId());
+        DimensionShard shard = shards.get(entity.getDimension());
+        return shard != null ? shard.getNPC(entity.getRuntimeId()) : null;
     }
 
     /**
-     * Get NPC config
+     * Get NPC config, materializing it from disk if its world is not loaded
      *
      * @param npcName NPC name
      * @return NPC config, null if not exists
      */
     @Nullable
     public NPCConfig getNPCConfig(String npcName) {
-        return npcConfigs.get(npcName);
+        NPCConfig config = npcConfigs.get(npcName);
+        if (config != null || !npcHeaders.containsKey(npcName)) {
+            return config;
+        }
+
+        config = materializeNPCConfig(npcName);
+        if (config != null) {
+            NPCConfig existing = npcConfigs.putIfAbsent(npcName, config);
+            return existing != null ? existing : config;
+        }
+        return null;
+    }
+
+    /**
+     * Get NPC header
+     *
+     * @param npcName NPC name
+     * @return NPC header, null if not exists
+     */
+    @Nullable
+    public NPCHeader getNPCHeader(String npcName) {
+        return npcHeaders.get(npcName);
     }
 
     /**
@@ -554,7 +1197,7 @@ public class NPCManager {
      * @return whether exists
      */
     public boolean hasNPC(String npcName) {
-        return npcConfigs.containsKey(npcName);
+        return npcHeaders.containsKey(npcName);
     }
 
     /**
@@ -563,7 +1206,7 @@ public class NPCManager {
      * @return NPC name set
      */
     public Set<String> getNPCNames() {
-        return npcConfigs.keySet();
+        return npcHeaders.keySet();
     }
 
     /**
@@ -581,6 +1224,15 @@ public class NPCManager {
      * @return NPC config count
      */
     public int getNPCConfigCount() {
+        return npcHeaders.size();
+    }
+
+    /**
+     * Get materialized NPC config count
+     *
+     * @return count of NPC configs currently held in memory
+     */
+    public int getLoadedNPCConfigCount() {
         return npcConfigs.size();
     }
 
@@ -593,52 +1245,71 @@ public class NPCManager {
         return spawnedNPCs.size();
     }
 
+    /**
+     * Get spawn version, changes whenever NPCs are spawned, removed or their visibility settings change
+     *
+     * @return spawn version
+     */
+    public long getSpawnVersion() {
+        return spawnVersion.get();
+    }
+
+    /**
+     * Get spawned NPC count in an update mode
+     *
+     * @param mode update mode
+     * @return NPC count
+     */
+    public int getSpawnedNPCCount(NPC.UpdateMode mode) {
+        int count = 0;
+        for (NPC npc : spawnedNPCs.values()) {
+            if (npc.getUpdateMode() == mode) count++;
+        }
+        return count;
+    }
+
     /**
      * Register NPC config
      *
      * @param config NPC config
      */
     public void registerNPCConfig(NPCConfig config) {
+        npcHeaders.put(config.getName(), NPCHeader.of(config));
         npcConfigs.put(config.getName(), config);
     }
 
     /**
      * Check player click cooldown
      *
-     * @param player  player
-     * @param npcName NPC name
+     * @param player player
+     * @param npc    NPC
      * @return whether on cooldown
      */
-    public boolean isOnCooldown(EntityPlayer player, String npcName) {
-        // Use UUID instead of RuntimeId for persistent tracking across reconnects
-        String key = player.getUniqueId() + "_" + npcName;
-        Long lastClick = clickCooldowns.get(key);
-
-        if (lastClick == null) {
-            return false;
-        }
+    public boolean isOnCooldown(EntityPlayer player, NPC npc) {
+        DimensionShard shard = npc.getShard();
+        return shard != null && shard.isOnCooldown(player, npc);
+    }
 
-        NPCConfig config = npcConfigs.get(npcName);
-        if (config == null) {
-            return false;
+    /**
+     * Record player click time
+     *
+     * @param player player
+     * @param npc    NPC
+     */
+    public void recordClick(EntityPlayer player, NPC npc) {
+        DimensionShard shard = npc.getShard();
+        if (shard != null) {
+            shard.recordClick(player, npc);
         }
-
-        long currentTime = System.currentTimeMillis();
-        int cooldownMs = config.getClickCooldown() * 50; // tick to milliseconds
-
-        return currentTime - lastClick < cooldownMs;
     }
 
     /**
-     * Record player click time
+     * Get shards of all dimensions holding NPCs
      *
-     * @param player  player
-     * @param npcName NPC name
+     * @return dimension shards
      */
-    public void recordClick(EntityPlayer player, String npcName) {
-        // Use UUID instead of RuntimeId for persistent tracking across reconnects
-        String key = player.getUniqueId() + "_" + npcName;
-        clickCooldowns.put(key, System.currentTimeMillis());
+    public Collection<DimensionShard> getShards() {
+        return shards.values();
     }
 
     /**
@@ -646,38 +1317,52 @@ public class NPCManager {
      * Call this periodically
      */
     public void cleanupCooldowns() {
-        long currentTime = System.currentTimeMillis();
-        // Remove entries older than 1 minute (max reasonable cooldown)
-        clickCooldowns.entrySet().removeIf(entry ->
-            currentTime - entry.getValue() > 60000);
+        // Each shard drops records older than 1 minute (max reasonable cooldown) on its own thread
+        shards.values().forEach(DimensionShard::cleanupCooldowns);
+        emoteBudget.cleanup();
+        clickLimiter.cleanup();
     }
 
     /**
      * Handle world load event
-     * Spawn all NPCs in the loaded world
+     * Queue all NPCs in the loaded world for spawning; configs are materialized as they spawn
      *
      * @param worldName world name
      */
     public void onWorldLoad(String worldName) {
-        for (NPCConfig config : npcConfigs.values()) {
-            if (config.getPosition() == null) continue;
+        World world = Server.getInstance().getWorldPool().getWorld(worldName);
+        if (world == null) {
+            return;
+        }
 
-            if (config.getPosition().getWorld().equals(worldName)) {
-                if (!spawnedNPCs.containsKey(config.getName())) {
-                    spawnNPC(config.getName());
+        List<NPCHeader> toSpawn = new ArrayList<>();
+        Set<Integer> missingDimensions = new HashSet<>();
+        for (NPCHeader header : npcHeaders.values()) {
+            if (!header.isInWorld(worldName) || spawnedNPCs.containsKey(header.name())) {
+                continue;
+            }
+            if (world.getDimension(header.dimension()) == null) {
+                // Reported once per dimension, the NPCs stay indexed
+                if (missingDimensions.add(header.dimension())) {
+                    log.warn("World {} has no dimension {}, its NPCs are not spawned", worldName, header.dimension());
                 }
+                continue;
             }
+            toSpawn.add(header);
         }
-        log.debug("Spawned NPCs for world: {}", worldName);
+
+        spawnQueue.enqueue(toSpawn);
+        log.debug("Queued {} NPCs for world: {}", toSpawn.size(), worldName);
     }
 
     /**
      * Handle world unload event
-     * Remove all NPCs in the unloading world
+     * Remove all NPCs in the unloading world and evict their configs
      *
      * @param worldName world name
      */
     public void onWorldUnload(String worldName) {
+        spawnQueue.removeWorld(worldName);
         List<String> toRemove = new ArrayList<>();
 
         for (Map.Entry<String, NPC> entry : spawnedNPCs.entrySet()) {
@@ -689,6 +1374,47 @@ public class NPCManager {
         for (String npcName : toRemove) {
             removeNPC(npcName);
         }
+
+        // Stop emote wheels and shards of this world
+        emoteWheels.values().removeIf(wheel -> {
+            if (wheel.getDimension().getWorld().getName().equals(worldName)) {
+                wheel.close();
+                return true;
+            }
+            return false;
+        });
+        shards.values().removeIf(shard -> {
+            if (shard.getDimension().getWorld().getName().equals(worldName)) {
+                shard.close();
+                return true;
+            }
+            return false;
+        });
+
+        // Evict materialized configs, they will be parsed again when the world comes back
+        npcConfigs.values().removeIf(config ->
+                config.getPosition() != null && config.getPosition().getWorld().equals(worldName));
         log.debug("Removed {} NPCs for unloading world: {}", toRemove.size(), worldName);
     }
+
+    /**
+     * Handle player quit.
+     * Virtual NPCs are not tracked by the engine, so they are despawned from the player here.
+     *
+     * @param player player who quit
+     */
+    public void onPlayerQuit(Player player) {
+        for (DimensionShard shard : shards.values()) {
+            shard.forgetViewer(player);
+        }
+    }
+
+    /**
+     * Resolved NPC template
+     *
+     * @param data   options including inherited ones
+     * @param config parsed template, its armor, emote and actions are shared with NPCs
+     */
+    private record NPCTemplate(Map<String, Object> data, NPCConfig config) {
+    }
 }
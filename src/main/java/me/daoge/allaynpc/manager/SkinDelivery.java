@@ -0,0 +1,200 @@
+package me.daoge.allaynpc.manager;
+
+import me.daoge.allaynpc.npc.NPC;
+import org.allaymc.api.entity.Entity;
+import org.allaymc.api.player.Player;
+
+import java.util.*;
+
+/**
+ * Skin delivery scheduler
+ * Spreads the skins a player receives over several ticks: NPCs about to be shown by the
+ * {@link VisibilityManager} are queued per viewer, nearest first, and only spawned to the
+ * viewer while their skin bytes fit into the viewer's per-tick budget.
+ * <p>
+ * Skins are sent as part of spawning a player entity and cannot differ per viewer,
+ * so queued NPCs stay hidden from that viewer until their turn comes.
+ * One instance per dimension, only touched by the dimension's world thread except for the counters.
+ *
+ * @author daoge_cmd
+ */
+public class SkinDelivery {
+
+    /**
+     * Pending deliveries per viewer
+     */
+    private final Map<Player, ViewerQueue> queues = new HashMap<>();
+
+    /**
+     * Total skin bytes delivered through the queue
+     */
+    private volatile long deliveredBytes = 0;
+
+    /**
+     * Number of NPC views waiting for their skin, summed over all viewers
+     */
+    private volatile int pendingCount = 0;
+
+    /**
+     * Show an NPC to a viewer, right away or once its skin fits into the viewer's budget
+     *
+     * @param player          viewer
+     * @param npc             NPC to show
+     * @param distanceSquared squared distance between viewer and NPC, nearer NPCs go first
+     * @param maxBytesPerTick skin bytes each viewer may receive per tick, 0 = unlimited
+     */
+    public void show(Player player, NPC npc, double distanceSquared, long maxBytesPerTick) {
+        Entity entity = npc.getEntity();
+        if (entity == null) return;
+
+        int bytes = npc.getSkinBytes();
+        if (maxBytesPerTick <= 0 || bytes <= 0) {
+            entity.spawnTo(player);
+            return;
+        }
+        queues.computeIfAbsent(player, key -> new ViewerQueue()).add(npc, bytes, distanceSquared);
+    }
+
+    /**
+     * Drop a pending delivery, e.g. because the NPC should no longer be shown
+     *
+     * @param player viewer
+     * @param npc    NPC
+     */
+    public void cancel(Player player, NPC npc) {
+        ViewerQueue queue = queues.get(player);
+        if (queue != null) {
+            queue.pending.remove(npc);
+        }
+    }
+
+    /**
+     * Drop every pending delivery of a viewer, e.g. because they left the dimension
+     *
+     * @param player viewer
+     */
+    public void forget(Player player) {
+        queues.remove(player);
+    }
+
+    /**
+     * Deliver queued skins within each viewer's budget.
+     * Called every tick on the dimension's world thread.
+     *
+     * @param maxBytesPerTick skin bytes each viewer may receive per tick, 0 = unlimited (flushes the queues)
+     */
+    public void tick(long maxBytesPerTick) {
+        if (queues.isEmpty()) {
+            pendingCount = 0;
+            return;
+        }
+
+        int pending = 0;
+        Iterator<Map.Entry<Player, ViewerQueue>> iterator = queues.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Player, ViewerQueue> entry = iterator.next();
+            Player player = entry.getKey();
+            ViewerQueue queue = entry.getValue();
+            if (player.getControlledEntity() == null) {
+                iterator.remove();
+            } else if (maxBytesPerTick <= 0) {
+                // Budget lifted, deliver everything still waiting
+                queue.flush(player);
+                iterator.remove();
+            } else if (queue.drain(player, maxBytesPerTick)) {
+                iterator.remove();
+            } else {
+                pending += queue.pending.size();
+            }
+        }
+        pendingCount = pending;
+    }
+
+    /**
+     * Get number of NPC views waiting for their skin, summed over all viewers
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Get total skin bytes delivered through the queue
+     */
+    public long getDeliveredBytes() {
+        return deliveredBytes;
+    }
+
+    /**
+     * Queued delivery
+     *
+     * @param npc             NPC to show
+     * @param bytes           skin bytes sent along with it
+     * @param distanceSquared squared distance when queued
+     */
+    private record Delivery(NPC npc, int bytes, double distanceSquared) {
+    }
+
+    /**
+     * Pending deliveries of one viewer
+     */
+    private final class ViewerQueue {
+
+        private final PriorityQueue<Delivery> queue = new PriorityQueue<>(Comparator.comparingDouble(Delivery::distanceSquared));
+        private final Set<NPC> pending = new HashSet<>();
+
+        /**
+         * Bytes the viewer may still receive; goes negative after a skin larger than
+         * the per-tick budget and is paid back over the following ticks
+         */
+        private long credit = 0;
+
+        private void add(NPC npc, int bytes, double distanceSquared) {
+            if (pending.add(npc)) {
+                queue.add(new Delivery(npc, bytes, distanceSquared));
+            }
+        }
+
+        /**
+         * Deliver as many queued skins as the budget allows
+         *
+         * @return true if nothing is left to deliver and no debt is left to pay back
+         */
+        private boolean drain(Player player, long budget) {
+            credit = Math.min(budget, credit + budget);
+            while (credit > 0 && !queue.isEmpty()) {
+                credit -= deliver(player, queue.poll());
+            }
+            return queue.isEmpty() && credit >= budget;
+        }
+
+        /**
+         * Deliver everything still queued, ignoring the budget
+         */
+        private void flush(Player player) {
+            while (!queue.isEmpty()) {
+                deliver(player, queue.poll());
+            }
+        }
+
+        /**
+         * Spawn a queued NPC to the viewer if it is still wanted
+         *
+         * @return skin bytes sent
+         */
+        private int deliver(Player player, Delivery delivery) {
+            // Skip deliveries cancelled meanwhile
+            if (!pending.remove(delivery.npc())) return 0;
+
+            Entity entity = delivery.npc().getEntity();
+            var playerEntity = player.getControlledEntity();
+            if (entity == null || playerEntity == null || entity.getDimension() != playerEntity.getDimension()
+                    || entity.getViewers().contains(player)) {
+                return 0;
+            }
+
+            entity.spawnTo(player);
+            deliveredBytes += delivery.bytes();
+            return delivery.bytes();
+        }
+    }
+}
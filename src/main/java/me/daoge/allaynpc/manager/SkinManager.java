@@ -9,14 +9,23 @@ import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collection;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Skin Manager
  * Responsible for loading, caching and managing NPC skins
+ * <p>
+ * Skins are indexed from disk on load and decoded on first use. Decoded skins stay
+ * resident in an LRU cache bounded by a byte budget; skins referenced by spawned NPCs
+ * are never evicted. Identical textures and geometries are shared between skins by content.
+ * <p>
+ * Decoding happens outside the cache lock; {@link #getSkinAsync(String)} runs it on a
+ * background pool so world threads never block on disk I/O.
  *
  * @author daoge_cmd
  */
@@ -29,9 +38,59 @@ public class SkinManager {
     private final Path skinsDirectory;
 
     /**
-     * Skin cache (skin name -> skin object)
+     * Skin source index (skin name -> skin source on disk)
      */
-    private volatile Map<String, Skin> skins = new ConcurrentHashMap<>();
+    private volatile Map<String, SkinSource> sources = new ConcurrentHashMap<>();
+
+    /**
+     * Skins registered at runtime (skin name -> skin object), never evicted
+     */
+    private final Map<String, Skin> registeredSkins = new ConcurrentHashMap<>();
+
+    /**
+     * Resident decoded skins in access order (skin name -> skin entry), guarded by lock
+     */
+    private final LinkedHashMap<String, SkinEntry> resident = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Shared texture pool (texture content -> pooled texture), guarded by lock
+     */
+    private final Map<TextureKey, PooledTexture> texturePool = new HashMap<>();
+
+    /**
+     * Shared geometry pool (geometry JSON -> pooled geometry), guarded by lock
+     */
+    private final Map<String, PooledGeometry> geometryPool = new HashMap<>();
+
+    /**
+     * Reference counts from spawned NPCs (skin name -> count), guarded by lock
+     */
+    private final Map<String, Integer> refCounts = new HashMap<>();
+
+    /**
+     * In-flight asynchronous loads (skin name -> future)
+     */
+    private final Map<String, CompletableFuture<Skin>> pendingLoads = new ConcurrentHashMap<>();
+
+    /**
+     * Background pool for skin decoding
+     */
+    private final ExecutorService loaderPool;
+
+    /**
+     * Lock for resident cache, texture pool and reference counts
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Bytes of unique textures currently resident, guarded by lock
+     */
+    private long residentBytes = 0;
+
+    /**
+     * Resident byte budget
+     */
+    private volatile long budgetBytes;
 
     /**
      * Default skin
@@ -42,79 +101,203 @@ public class SkinManager {
      * Create skin manager
      *
      * @param skinsDirectory skins directory path
+     * @param budgetBytes    resident byte budget
      */
-    public SkinManager(Path skinsDirectory) {
+    public SkinManager(Path skinsDirectory, long budgetBytes) {
         this.skinsDirectory = skinsDirectory;
+        this.budgetBytes = budgetBytes;
         this.defaultSkin = SkinUtil.createDefaultSkin();
+
+        AtomicInteger threadId = new AtomicInteger();
+        this.loaderPool = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "AllayNPC-SkinLoader-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stop the background loader pool
+     */
+    public void shutdown() {
+        loaderPool.shutdownNow();
     }
 
     /**
-     * Load all skins using atomic replacement pattern.
+     * Index all skins using atomic replacement pattern.
+     * Skins are decoded lazily on first use.
      */
     public void loadAllSkins() {
         // Create new map for atomic replacement
-        Map<String, Skin> newSkins = new ConcurrentHashMap<>();
+        Map<String, SkinSource> newSources = new ConcurrentHashMap<>();
 
         if (!Files.exists(skinsDirectory)) {
             log.warn("Skins directory does not exist: {}", skinsDirectory);
-            // Atomically replace with empty map
-            this.skins = newSkins;
-            return;
-        }
-
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(skinsDirectory)) {
-            for (Path path : stream) {
-                String fileName = path.getFileName().toString();
-
-                if (Files.isDirectory(path)) {
-                    // Load skin from folder
-                    loadSkinFromFolder(path, fileName, newSkins);
-                } else if (fileName.endsWith(".png")) {
-                    // Load skin from single PNG file
-                    String skinName = fileName.replace(".png", "").replace("_slim", "");
-                    loadSkinFromFile(path, skinName, newSkins);
+        } else {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(skinsDirectory)) {
+                for (Path path : stream) {
+                    String fileName = path.getFileName().toString();
+
+                    if (Files.isDirectory(path)) {
+                        // Skin from folder
+                        newSources.put(fileName, new SkinSource(path, true));
+                    } else if (fileName.endsWith(".png")) {
+                        // Skin from single PNG file
+                        String skinName = fileName.replace(".png", "").replace("_slim", "");
+                        newSources.put(skinName, new SkinSource(path, false));
+                    }
                 }
+            } catch (IOException e) {
+                log.error("Failed to load skins from directory: {}", skinsDirectory, e);
             }
-        } catch (IOException e) {
-            log.error("Failed to load skins from directory: {}", skinsDirectory, e);
         }
 
-        // Atomic replacement - other threads will see either old or new map, never empty
-        this.skins = newSkins;
-        log.info("Loaded {} skins", newSkins.size());
+        synchronized (lock) {
+            // Atomic replacement - other threads will see either old or new map, never empty
+            this.sources = newSources;
+            resident.clear();
+            texturePool.clear();
+            geometryPool.clear();
+            residentBytes = 0;
+        }
+        log.info("Indexed {} skins", newSources.size());
     }
 
     /**
-     * Load skin from folder into target map
+     * Decode a skin from its on-disk source
      *
-     * @param folder     skin folder
-     * @param skinName   skin name
-     * @param targetMap  target map to put skin into
+     * @param name   skin name
+     * @param source skin source
+     * @return decoded skin, null if failed
      */
-    private void loadSkinFromFolder(Path folder, String skinName, Map<String, Skin> targetMap) {
-        Skin skin = SkinUtil.loadSkinFromFolder(folder, skinName);
+    @Nullable
+    private Skin decodeSkin(String name, SkinSource source) {
+        Skin skin = source.folder()
+                ? SkinUtil.loadSkinFromFolder(source.path(), name)
+                : SkinUtil.loadSkinFromFile(source.path(), name);
         if (skin != null) {
-            targetMap.put(skinName, skin);
-            log.debug("Loaded skin from folder: {}", skinName);
+            log.debug("Loaded skin: {}", name);
         } else {
-            log.warn("Failed to load skin from folder: {}", skinName);
+            log.warn("Failed to load skin: {}", name);
         }
+        return skin;
     }
 
     /**
-     * Load skin from file into target map
+     * Get skin if it is already in memory, caller must hold lock
      *
-     * @param file       skin file
-     * @param skinName   skin name
-     * @param targetMap  target map to put skin into
+     * @param name skin name
+     * @return skin object, null if not resident
      */
-    private void loadSkinFromFile(Path file, String skinName, Map<String, Skin> targetMap) {
-        Skin skin = SkinUtil.loadSkinFromFile(file, skinName);
-        if (skin != null) {
-            targetMap.put(skinName, skin);
-            log.debug("Loaded skin from file: {}", skinName);
-        } else {
-            log.warn("Failed to load skin from file: {}", skinName);
+    @Nullable
+    private Skin getResidentLocked(String name) {
+        Skin registered = registeredSkins.get(name);
+        if (registered != null) {
+            return registered;
+        }
+
+        SkinEntry entry = resident.get(name);
+        return entry != null ? entry.skin() : null;
+    }
+
+    /**
+     * Get resident skin or decode it from disk.
+     * Decoding runs without holding the lock.
+     *
+     * @param name skin name
+     * @return skin object, null if not exists or failed to load
+     */
+    @Nullable
+    private Skin resolve(String name) {
+        synchronized (lock) {
+            Skin skin = getResidentLocked(name);
+            if (skin != null) {
+                return skin;
+            }
+        }
+
+        SkinSource source = sources.get(name);
+        if (source == null) {
+            return null;
+        }
+
+        Skin decoded = decodeSkin(name, source);
+        if (decoded == null) {
+            return null;
+        }
+
+        synchronized (lock) {
+            // Another thread may have loaded it meanwhile
+            Skin skin = getResidentLocked(name);
+            if (skin != null) {
+                return skin;
+            }
+            // Skins were reloaded while decoding, do not cache a stale result
+            if (sources.get(name) != source) {
+                return decoded;
+            }
+            return insertLocked(name, decoded);
+        }
+    }
+
+    /**
+     * Insert a decoded skin into the resident cache, caller must hold lock
+     *
+     * @param name skin name
+     * @param skin decoded skin
+     * @return skin object sharing pooled texture and geometry data
+     */
+    private Skin insertLocked(String name, Skin skin) {
+        // Share texture buffers between skins with identical content
+        TextureKey key = new TextureKey(skin.skinData().data());
+        PooledTexture pooled = texturePool.get(key);
+        if (pooled == null) {
+            pooled = new PooledTexture(skin.skinData());
+            texturePool.put(key, pooled);
+            residentBytes += key.data().length;
+        }
+        pooled.users++;
+
+        // Share geometry JSON between skins using the same model
+        PooledGeometry geometry = geometryPool.computeIfAbsent(skin.skinGeometry(), PooledGeometry::new);
+        geometry.users++;
+
+        if (pooled.imageData != skin.skinData() || geometry.data != skin.skinGeometry()) {
+            skin = skin.toBuilder()
+                    .skinData(pooled.imageData)
+                    .skinGeometry(geometry.data)
+                    .build();
+        }
+
+        resident.put(name, new SkinEntry(skin, key));
+        trimLocked();
+        return skin;
+    }
+
+    /**
+     * Evict least recently used unreferenced skins until within budget, caller must hold lock
+     */
+    private void trimLocked() {
+        Iterator<Map.Entry<String, SkinEntry>> iterator = resident.entrySet().iterator();
+        while (residentBytes > budgetBytes && iterator.hasNext()) {
+            Map.Entry<String, SkinEntry> entry = iterator.next();
+            if (refCounts.getOrDefault(entry.getKey(), 0) > 0) {
+                continue;
+            }
+
+            iterator.remove();
+            TextureKey key = entry.getValue().textureKey();
+            PooledTexture pooled = texturePool.get(key);
+            if (pooled != null && --pooled.users <= 0) {
+                texturePool.remove(key);
+                residentBytes -= key.data().length;
+            }
+            String geometryKey = entry.getValue().skin().skinGeometry();
+            PooledGeometry geometry = geometryPool.get(geometryKey);
+            if (geometry != null && --geometry.users <= 0) {
+                geometryPool.remove(geometryKey);
+            }
+            log.debug("Evicted skin from memory: {}", entry.getKey());
         }
     }
 
@@ -125,7 +308,8 @@ public class SkinManager {
      * @return skin object, returns default skin if not exists
      */
     public Skin getSkin(String name) {
-        return skins.getOrDefault(name, defaultSkin);
+        Skin skin = getSkinOrNull(name);
+        return skin != null ? skin : defaultSkin;
     }
 
     /**
@@ -136,7 +320,73 @@ public class SkinManager {
      */
     @Nullable
     public Skin getSkinOrNull(String name) {
-        return skins.get(name);
+        return resolve(name);
+    }
+
+    /**
+     * Get skin only if it is already in memory, never touches disk
+     *
+     * @param name skin name
+     * @return skin object, null if not resident
+     */
+    @Nullable
+    public Skin getResidentSkin(String name) {
+        synchronized (lock) {
+            return getResidentLocked(name);
+        }
+    }
+
+    /**
+     * Get skin asynchronously, decoding it on the background pool if not resident.
+     * Concurrent requests for the same skin share one load.
+     *
+     * @param name skin name
+     * @return future completed with the skin, or the default skin if not exists
+     */
+    public CompletableFuture<Skin> getSkinAsync(String name) {
+        Skin skin = getResidentSkin(name);
+        if (skin != null) {
+            return CompletableFuture.completedFuture(skin);
+        }
+
+        CompletableFuture<Skin> future = pendingLoads.computeIfAbsent(name,
+                key -> CompletableFuture.supplyAsync(() -> getSkin(key), loaderPool));
+        // Attached outside computeIfAbsent: on an already completed future the callback runs right away
+        // and must not modify the map from inside its own mapping function
+        future.whenComplete((result, error) -> pendingLoads.remove(name, future));
+        return future;
+    }
+
+    /**
+     * Take a reference on a skin, so it stays resident once loaded.
+     * Every call must be paired with {@link #releaseSkin(String)}.
+     *
+     * @param name skin name
+     */
+    public void retainSkin(String name) {
+        synchronized (lock) {
+            refCounts.merge(name, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Drop a reference taken by {@link #retainSkin(String)}
+     *
+     * @param name skin name
+     */
+    public void releaseSkin(String name) {
+        synchronized (lock) {
+            Integer count = refCounts.get(name);
+            if (count == null) {
+                return;
+            }
+            if (count <= 1) {
+                refCounts.remove(name);
+                trimLocked();
+            } else {
+                refCounts.put(name, count - 1);
+            }
+        }
     }
 
     /**
@@ -146,7 +396,7 @@ public class SkinManager {
      * @return whether exists
      */
     public boolean hasSkin(String name) {
-        return skins.containsKey(name);
+        return sources.containsKey(name) || registeredSkins.containsKey(name);
     }
 
     /**
@@ -155,16 +405,24 @@ public class SkinManager {
      * @return skin name set
      */
     public Set<String> getSkinNames() {
-        return skins.keySet();
+        Set<String> names = new TreeSet<>(sources.keySet());
+        names.addAll(registeredSkins.keySet());
+        return names;
     }
 
     /**
-     * Get all skins
+     * Get all resident skins
      *
      * @return skin collection
      */
     public Collection<Skin> getAllSkins() {
-        return skins.values();
+        synchronized (lock) {
+            List<Skin> skins = new ArrayList<>(registeredSkins.values());
+            for (SkinEntry entry : resident.values()) {
+                skins.add(entry.skin());
+            }
+            return skins;
+        }
     }
 
     /**
@@ -173,7 +431,72 @@ public class SkinManager {
      * @return skin count
      */
     public int getSkinCount() {
-        return skins.size();
+        return getSkinNames().size();
+    }
+
+    /**
+     * Get count of skins currently decoded in memory
+     *
+     * @return resident skin count
+     */
+    public int getResidentSkinCount() {
+        synchronized (lock) {
+            return resident.size();
+        }
+    }
+
+    /**
+     * Get count of unique textures currently in memory
+     *
+     * @return unique texture count
+     */
+    public int getUniqueTextureCount() {
+        synchronized (lock) {
+            return texturePool.size();
+        }
+    }
+
+    /**
+     * Get count of unique geometries currently in memory
+     *
+     * @return unique geometry count
+     */
+    public int getUniqueGeometryCount() {
+        synchronized (lock) {
+            return geometryPool.size();
+        }
+    }
+
+    /**
+     * Get bytes of unique textures currently in memory
+     *
+     * @return resident bytes
+     */
+    public long getResidentBytes() {
+        synchronized (lock) {
+            return residentBytes;
+        }
+    }
+
+    /**
+     * Get resident byte budget
+     *
+     * @return budget in bytes
+     */
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Set resident byte budget, evicting unreferenced skins if needed
+     *
+     * @param budgetBytes budget in bytes
+     */
+    public void setBudgetBytes(long budgetBytes) {
+        synchronized (lock) {
+            this.budgetBytes = budgetBytes;
+            trimLocked();
+        }
     }
 
     /**
@@ -196,22 +519,95 @@ public class SkinManager {
 
     /**
      * Register skin
+     * Registered skins have no on-disk source and are never evicted
      *
      * @param name skin name
      * @param skin skin object
      */
     public void registerSkin(String name, Skin skin) {
-        skins.put(name, skin);
+        registeredSkins.put(name, skin);
     }
 
     /**
-     * Remove skin
+     * Remove registered skin
      *
      * @param name skin name
      * @return removed skin object, null if not exists
      */
     @Nullable
     public Skin removeSkin(String name) {
-        return skins.remove(name);
+        return registeredSkins.remove(name);
+    }
+
+    /**
+     * Skin source on disk
+     *
+     * @param path   skin file or folder
+     * @param folder whether the source is a skin folder
+     */
+    private record SkinSource(Path path, boolean folder) {}
+
+    /**
+     * Resident skin entry
+     *
+     * @param skin       decoded skin
+     * @param textureKey key of the pooled texture used by this skin
+     */
+    private record SkinEntry(Skin skin, TextureKey textureKey) {}
+
+    /**
+     * Texture content key, compares texture bytes by content
+     */
+    private static final class TextureKey {
+
+        private final byte[] data;
+        private final int hash;
+
+        TextureKey(byte[] data) {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        byte[] data() {
+            return data;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TextureKey other)) return false;
+            return hash == other.hash && Arrays.equals(data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Pooled geometry JSON shared by skins with identical content
+     */
+    private static final class PooledGeometry {
+
+        private final String data;
+        private int users;
+
+        PooledGeometry(String data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * Pooled texture shared by skins with identical content
+     */
+    private static final class PooledTexture {
+
+        private final Skin.ImageData imageData;
+        private int users;
+
+        PooledTexture(Skin.ImageData imageData) {
+            this.imageData = imageData;
+        }
     }
 }
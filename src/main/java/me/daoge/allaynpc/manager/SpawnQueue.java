@@ -0,0 +1,257 @@
+package me.daoge.allaynpc.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import me.daoge.allaynpc.config.NPCHeader;
+import org.allaymc.api.entity.interfaces.EntityPlayer;
+import org.allaymc.api.server.Server;
+import org.allaymc.api.world.Dimension;
+import org.allaymc.api.world.World;
+
+import java.util.*;
+
+/**
+ * Spawn queue
+ * Spreads NPC spawning over several ticks so loading a world with many NPCs
+ * does not stall a single tick. NPCs closest to online players are spawned first.
+ *
+ * @author daoge_cmd
+ */
+@Slf4j
+public class SpawnQueue {
+
+    /**
+     * Owning NPC manager
+     */
+    private final NPCManager npcManager;
+
+    /**
+     * Pending spawns ordered by distance to the nearest player, guarded by this
+     */
+    private final PriorityQueue<PendingSpawn> queue = new PriorityQueue<>();
+
+    /**
+     * Names of queued NPCs, guarded by this
+     */
+    private final Set<String> queuedNames = new HashSet<>();
+
+    /**
+     * Maximum NPCs spawned per tick
+     */
+    private volatile int maxPerTick;
+
+    /**
+     * Maximum spawn work per tick in nanoseconds
+     */
+    private volatile long maxNanosPerTick;
+
+    /**
+     * NPCs queued in the current batch, reset when the queue drains
+     */
+    private int batchTotal = 0;
+
+    /**
+     * NPCs processed in the current batch
+     */
+    private int batchDone = 0;
+
+    /**
+     * Insertion counter, keeps FIFO order between equal distances
+     */
+    private long sequence = 0;
+
+    /**
+     * Create spawn queue
+     *
+     * @param npcManager       owning NPC manager
+     * @param maxPerTick       maximum NPCs spawned per tick
+     * @param maxMillisPerTick maximum spawn work per tick in milliseconds
+     */
+    public SpawnQueue(NPCManager npcManager, int maxPerTick, int maxMillisPerTick) {
+        this.npcManager = npcManager;
+        setLimits(maxPerTick, maxMillisPerTick);
+    }
+
+    /**
+     * Update per-tick limits
+     *
+     * @param maxPerTick       maximum NPCs spawned per tick
+     * @param maxMillisPerTick maximum spawn work per tick in milliseconds
+     */
+    public void setLimits(int maxPerTick, int maxMillisPerTick) {
+        this.maxPerTick = Math.max(1, maxPerTick);
+        this.maxNanosPerTick = Math.max(1, maxMillisPerTick) * 1_000_000L;
+    }
+
+    /**
+     * Queue NPCs for spawning
+     *
+     * @param headers NPC headers to spawn
+     */
+    public synchronized void enqueue(Collection<NPCHeader> headers) {
+        if (headers.isEmpty()) return;
+
+        // Snapshot player positions once per dimension for the whole batch
+        Map<DimensionKey, List<EntityPlayer>> playersByDimension = new HashMap<>();
+        for (NPCHeader header : headers) {
+            if (!queuedNames.add(header.name())) continue;
+
+            List<EntityPlayer> players = playersByDimension.computeIfAbsent(
+                    new DimensionKey(header.world(), header.dimension()), this::getPlayers);
+            queue.add(new PendingSpawn(header, nearestPlayerDistanceSquared(header, players), sequence++));
+            batchTotal++;
+        }
+    }
+
+    /**
+     * Drop queued NPCs of a world
+     *
+     * @param worldName world name
+     */
+    public synchronized void removeWorld(String worldName) {
+        queue.removeIf(pending -> {
+            if (pending.header().isInWorld(worldName)) {
+                queuedNames.remove(pending.header().name());
+                batchDone++;
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Drop a queued NPC
+     *
+     * @param npcName NPC name
+     */
+    public synchronized void remove(String npcName) {
+        if (queuedNames.remove(npcName)) {
+            queue.removeIf(pending -> pending.header().name().equals(npcName));
+            batchDone++;
+        }
+    }
+
+    /**
+     * Drop all queued NPCs
+     */
+    public synchronized void clear() {
+        queue.clear();
+        queuedNames.clear();
+        batchTotal = 0;
+        batchDone = 0;
+    }
+
+    /**
+     * Spawn queued NPCs within the per-tick budget.
+     * Called every tick by the server scheduler.
+     */
+    public void tick() {
+        long start = System.nanoTime();
+        int spawned = 0;
+
+        while (spawned < maxPerTick && System.nanoTime() - start < maxNanosPerTick) {
+            NPCHeader header;
+            synchronized (this) {
+                PendingSpawn pending = queue.poll();
+                if (pending == null) {
+                    if (batchTotal > 0) {
+                        log.debug("Spawn queue drained ({} NPCs)", batchTotal);
+                    }
+                    batchTotal = 0;
+                    batchDone = 0;
+                    return;
+                }
+                header = pending.header();
+                queuedNames.remove(header.name());
+                batchDone++;
+            }
+
+            if (npcManager.getNPC(header.name()) == null) {
+                npcManager.spawnNPC(header.name());
+                spawned++;
+            }
+        }
+    }
+
+    /**
+     * Get pending spawn count
+     */
+    public synchronized int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Get NPCs processed in the current batch
+     */
+    public synchronized int getBatchDone() {
+        return batchDone;
+    }
+
+    /**
+     * Get NPCs queued in the current batch
+     */
+    public synchronized int getBatchTotal() {
+        return batchTotal;
+    }
+
+    /**
+     * Get players in a dimension
+     *
+     * @param key world name and dimension ID
+     * @return players, empty if the world or dimension is not loaded
+     */
+    private List<EntityPlayer> getPlayers(DimensionKey key) {
+        World world = Server.getInstance().getWorldPool().getWorld(key.world());
+        if (world == null) return List.of();
+
+        Dimension dimension = world.getDimension(key.dimension());
+        if (dimension == null) return List.of();
+
+        return new ArrayList<>(dimension.getPlayers());
+    }
+
+    /**
+     * Squared horizontal distance from the NPC's chunk center to the nearest player
+     *
+     * @param header  NPC header
+     * @param players players in the NPC's dimension
+     * @return squared distance, or {@link Double#MAX_VALUE} if no player is online there
+     */
+    private static double nearestPlayerDistanceSquared(NPCHeader header, List<EntityPlayer> players) {
+        double centerX = (header.chunkX() << 4) + 8;
+        double centerZ = (header.chunkZ() << 4) + 8;
+        double nearest = Double.MAX_VALUE;
+
+        for (EntityPlayer player : players) {
+            var loc = player.getLocation();
+            double dx = loc.x() - centerX;
+            double dz = loc.z() - centerZ;
+            nearest = Math.min(nearest, dx * dx + dz * dz);
+        }
+        return nearest;
+    }
+
+    /**
+     * Dimension of a world
+     *
+     * @param world     world name
+     * @param dimension dimension ID
+     */
+    private record DimensionKey(String world, int dimension) {
+    }
+
+    /**
+     * Queued spawn
+     *
+     * @param header          NPC header
+     * @param distanceSquared squared distance to the nearest player when queued
+     * @param sequence        insertion order
+     */
+    private record PendingSpawn(NPCHeader header, double distanceSquared, long sequence) implements Comparable<PendingSpawn> {
+
+        @Override
+        public int compareTo(PendingSpawn other) {
+            int result = Double.compare(distanceSquared, other.distanceSquared);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
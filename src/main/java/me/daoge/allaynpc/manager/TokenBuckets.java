@@ -0,0 +1,76 @@
+package me.daoge.allaynpc.manager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets
+ * One token bucket per key, created full on first use and refilled at the rate passed with each take.
+ * Buckets are touched from several world threads.
+ *
+ * @param <K> bucket key type
+ * @author daoge_cmd
+ */
+final class TokenBuckets<K> {
+
+    /**
+     * Time after which an unused bucket is forgotten (milliseconds)
+     */
+    private static final long IDLE_MILLIS = 60000;
+
+    /**
+     * Buckets per key
+     */
+    private final Map<K, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Take one token from a key's bucket
+     *
+     * @param key  bucket key
+     * @param rate tokens per second, above 0
+     * @return true if a token was taken
+     */
+    boolean tryTake(K key, int rate) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(rate));
+        }
+        return bucket.tryTake(rate, System.nanoTime());
+    }
+
+    /**
+     * Forget buckets that have not been used for a while
+     */
+    void cleanup() {
+        long threshold = System.nanoTime() - IDLE_MILLIS * 1_000_000L;
+        buckets.values().removeIf(bucket -> bucket.isIdleSince(threshold));
+    }
+
+    /**
+     * Token bucket of one key
+     */
+    private static final class Bucket {
+
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        private Bucket(int rate) {
+            this.tokens = rate;
+        }
+
+        private synchronized boolean tryTake(int rate, long now) {
+            // Refill for the elapsed time, never above one second worth of tokens
+            tokens = Math.min(rate, tokens + (now - lastRefill) * rate / 1_000_000_000.0);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private synchronized boolean isIdleSince(long threshold) {
+            return lastRefill - threshold < 0;
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package me.daoge.allaynpc.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import me.daoge.allaynpc.config.NPCConfig;
+import me.daoge.allaynpc.config.PluginConfig;
+import me.daoge.allaynpc.npc.NPC;
+import org.allaymc.api.entity.interfaces.EntityPlayer;
+import org.allaymc.api.math.location.Location3dc;
+import org.allaymc.api.player.Player;
+import org.allaymc.api.world.Dimension;
+
+import java.util.*;
+
+/**
+ * Visibility manager
+ * Decides per viewer which NPCs are shown: NPCs beyond their view distance are hidden,
+ * and when a render cap applies only the nearest N NPCs (weighted by priority) stay visible.
+ * The visible set of a viewer is only recomputed after they moved or the spawned NPCs changed.
+ * <p>
+ * NPCs without a view distance are left to the engine's entity tracking unless a render cap
+ * applies to the viewer; NPCs hidden by the cap are only shown again by this manager.
+ * Virtual NPCs are not in the world at all, so they are only ever shown by this manager,
+ * within their view distance or the cap range.
+ * <p>
+ * NPCs shown by this manager go through {@link SkinDelivery}, so a viewer entering a crowded
+ * area receives their skins nearest first over several ticks.
+ * <p>
+ * Owned NPCs (view distance or virtual) are despawned from players who left the dimension
+ * or disconnected, the engine only does that for the entities it tracks.
+ * <p>
+ * Thread-safety: every dimension keeps its own {@link DimensionVisibility}, driven by its
+ * {@link DimensionShard} on the dimension's world thread, which owns the NPC entities and viewers.
+ * Configuration changes are published through volatile fields and picked up on the next pass.
+ *
+ * @author daoge_cmd
+ */
+@Slf4j
+public class VisibilityManager {
+
+    /**
+     * Distance a viewer must move before their visible set is recomputed (blocks)
+     */
+    private static final double RECOMPUTE_DISTANCE = 2.0;
+
+    /**
+     * Visibility update interval in ticks
+     */
+    private static final int UPDATE_INTERVAL = 10;
+
+    /**
+     * Owning NPC manager
+     */
+    private final NPCManager npcManager;
+
+    /**
+     * Render cap configuration
+     */
+    private volatile PluginConfig.RenderCapConfig capConfig;
+
+    /**
+     * Incremented whenever the render cap configuration changes
+     */
+    private volatile long configVersion = 0;
+
+    /**
+     * Skin bytes each viewer may receive per tick, 0 = unlimited
+     */
+    private volatile long skinBytesPerTick;
+
+    /**
+     * Create visibility manager
+     *
+     * @param npcManager       owning NPC manager
+     * @param capConfig        render cap configuration
+     * @param skinBytesPerTick skin bytes each viewer may receive per tick, 0 = unlimited
+     */
+    public VisibilityManager(NPCManager npcManager, PluginConfig.RenderCapConfig capConfig, long skinBytesPerTick) {
+        this.npcManager = npcManager;
+        this.capConfig = capConfig;
+        this.skinBytesPerTick = Math.max(0, skinBytesPerTick);
+    }
+
+    /**
+     * Update render cap configuration, every viewer is recomputed on the next pass
+     *
+     * @param capConfig render cap configuration
+     */
+    public void setCapConfig(PluginConfig.RenderCapConfig capConfig) {
+        this.capConfig = capConfig;
+        this.configVersion++;
+    }
+
+    /**
+     * Update the per-viewer skin budget, takes effect on the next tick of every dimension
+     *
+     * @param skinBytesPerTick skin bytes each viewer may receive per tick, 0 = unlimited
+     */
+    public void setSkinBytesPerTick(long skinBytesPerTick) {
+        this.skinBytesPerTick = Math.max(0, skinBytesPerTick);
+    }
+
+    /**
+     * Create the visibility state of one dimension
+     *
+     * @param dimension dimension
+     * @return visibility state, to be ticked on the dimension's world thread
+     */
+    DimensionVisibility createDimensionVisibility(Dimension dimension) {
+        return new DimensionVisibility(dimension);
+    }
+
+    /**
+     * Compute the NPCs a viewer should see
+     *
+     * @param loc  viewer location
+     * @param npcs NPCs in the viewer's dimension
+     * @param cap  maximum visible NPCs, 0 = unlimited
+     * @return visible NPCs
+     */
+    private Set<NPC> computeVisibleSet(Location3dc loc, Collection<NPC> npcs, int cap) {
+        double range = capConfig.getRange();
+        // Max-heap on score, so the worst candidate is evicted first
+        PriorityQueue<Candidate> nearest = new PriorityQueue<>(Comparator.comparingDouble(Candidate::score).reversed());
+        Set<NPC> visible = new HashSet<>();
+
+        for (NPC npc : npcs) {
+            var entity = npc.getEntity();
+            if (entity == null) continue;
+
+            int viewDistance = npc.getConfig().getViewDistance();
+            if (!isManaged(npc, cap)) {
+                // Not managed for this viewer
+                visible.add(npc);
+                continue;
+            }
+
+            Location3dc npcLoc = entity.getLocation();
+            double distanceSquared = distanceSquared(loc, npcLoc.x(), npcLoc.y(), npcLoc.z());
+            double limit = viewDistance > 0 ? viewDistance : range;
+            if (distanceSquared > limit * limit) continue;
+
+            if (cap <= 0) {
+                visible.add(npc);
+                continue;
+            }
+
+            double priority = npc.getConfig().getPriority();
+            nearest.add(new Candidate(npc, distanceSquared / (priority * priority)));
+            if (nearest.size() > cap) {
+                nearest.poll();
+            }
+        }
+
+        for (Candidate candidate : nearest) {
+            visible.add(candidate.npc());
+        }
+        return visible;
+    }
+
+    /**
+     * Check if this manager decides the NPC's visibility for a viewer
+     *
+     * @param npc NPC
+     * @param cap viewer's render cap
+     * @return true if managed
+     */
+    private static boolean isManaged(NPC npc, int cap) {
+        return cap > 0 || isOwned(npc);
+    }
+
+    /**
+     * Check if the NPC is only ever shown by this manager, never by the engine's entity tracking
+     *
+     * @param npc NPC
+     * @return true if owned
+     */
+    private static boolean isOwned(NPC npc) {
+        NPCConfig config = npc.getConfig();
+        return config.getViewDistance() > 0 || config.isVirtual();
+    }
+
+    /**
+     * Resolve the render cap of a viewer
+     *
+     * @param worldName  viewer's world
+     * @param deviceName viewer's device OS
+     * @return maximum visible NPCs, 0 = unlimited
+     */
+    private int resolveCap(String worldName, String deviceName) {
+        PluginConfig.RenderCapConfig config = capConfig;
+        int cap = config.getWorlds().getOrDefault(worldName, config.getMaxVisible());
+
+        Integer deviceCap = config.getDevices().get(deviceName);
+        if (deviceCap != null && deviceCap > 0) {
+            cap = cap > 0 ? Math.min(cap, deviceCap) : deviceCap;
+        }
+        return Math.max(0, cap);
+    }
+
+    /**
+     * Get number of viewers currently tracked, summed over all dimensions
+     */
+    public int getViewerCount() {
+        int count = 0;
+        for (DimensionShard shard : npcManager.getShards()) {
+            count += shard.getVisibility().viewerCount;
+        }
+        return count;
+    }
+
+    /**
+     * Get number of NPCs hidden from viewers, summed over all viewers
+     */
+    public int getHiddenCount() {
+        int count = 0;
+        for (DimensionShard shard : npcManager.getShards()) {
+            count += shard.getVisibility().hiddenCount;
+        }
+        return count;
+    }
+
+    /**
+     * Get number of NPC views waiting for their skin, summed over all dimensions
+     */
+    public int getSkinPendingCount() {
+        int count = 0;
+        for (DimensionShard shard : npcManager.getShards()) {
+            count += shard.getVisibility().skinDelivery.getPendingCount();
+        }
+        return count;
+    }
+
+    /**
+     * Get total skin bytes delivered through the skin queues
+     */
+    public long getSkinDeliveredBytes() {
+        long bytes = 0;
+        for (DimensionShard shard : npcManager.getShards()) {
+            bytes += shard.getVisibility().skinDelivery.getDeliveredBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the device OS name of a player
+     *
+     * @param player the player
+     * @return device OS name, e.g. ANDROID or IOS
+     */
+    private static String getDeviceName(Player player) {
+        try {
+            return player.getLoginData().getDeviceInfo().device().name();
+        } catch (Exception e) {
+            return "UNKNOWN";
+        }
+    }
+
+    private static double distanceSquared(Location3dc loc, Location3dc other) {
+        return distanceSquared(loc, other.x(), other.y(), other.z());
+    }
+
+    private static double distanceSquared(Location3dc loc, double x, double y, double z) {
+        double dx = loc.x() - x;
+        double dy = loc.y() - y;
+        double dz = loc.z() - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Ranked NPC candidate
+     *
+     * @param npc   NPC
+     * @param score squared distance divided by squared priority, lower is better
+     */
+    private record Candidate(NPC npc, double score) {
+    }
+
+    /**
+     * Visibility state of one dimension.
+     * Only touched by the dimension's world thread, except for the volatile counters.
+     */
+    public final class DimensionVisibility {
+
+        private final Dimension dimension;
+
+        /**
+         * Per-viewer state (player runtime id -> state)
+         */
+        private final Map<Long, ViewerState> viewers = new HashMap<>();
+
+        /**
+         * Staged skin delivery for NPCs shown in this dimension
+         */
+        private final SkinDelivery skinDelivery = new SkinDelivery();
+
+        /**
+         * NPCs spawned in this dimension as of the last tick
+         */
+        private Collection<NPC> npcs = List.of();
+
+        private int ticks = 0;
+
+        private volatile int viewerCount = 0;
+
+        private volatile int hiddenCount = 0;
+
+        private DimensionVisibility(Dimension dimension) {
+            this.dimension = dimension;
+        }
+
+        /**
+         * Advance by one tick: deliver queued skins, and every few ticks recompute and enforce visibility
+         *
+         * @param npcs NPCs spawned in this dimension
+         */
+        void tick(Collection<NPC> npcs) {
+            this.npcs = npcs;
+            if (++ticks % UPDATE_INTERVAL == 0) {
+                update(npcs);
+            }
+            skinDelivery.tick(skinBytesPerTick);
+        }
+
+        /**
+         * Recompute and enforce visibility for all viewers in this dimension
+         *
+         * @param npcs NPCs spawned in this dimension
+         */
+        private void update(Collection<NPC> npcs) {
+            if (npcs.isEmpty()) {
+                viewers.clear();
+                viewerCount = 0;
+                hiddenCount = 0;
+                return;
+            }
+
+            long spawnVersion = npcManager.getSpawnVersion();
+            Set<Long> seen = new HashSet<>();
+            Set<Player> present = new HashSet<>();
+            int hidden = 0;
+
+            for (EntityPlayer playerEntity : dimension.getPlayers()) {
+                if (!playerEntity.isActualPlayer()) continue;
+
+                Player player = playerEntity.getController();
+                long id = playerEntity.getRuntimeId();
+                seen.add(id);
+                present.add(player);
+
+                ViewerState state = viewers.computeIfAbsent(id, key -> new ViewerState(getDeviceName(player)));
+                try {
+                    hidden += updateViewer(state, player, playerEntity.getLocation(), npcs, spawnVersion);
+                } catch (Exception e) {
+                    log.warn("Failed to update NPC visibility for {}: {}", player.getOriginName(), e.getMessage());
+                }
+            }
+
+            // Forget viewers that left this dimension or disconnected
+            viewers.keySet().retainAll(seen);
+            for (NPC npc : npcs) {
+                var entity = npc.getEntity();
+                if (entity == null || !isOwned(npc)) continue;
+                for (var viewer : new ArrayList<>(entity.getViewers())) {
+                    if (viewer instanceof Player player && !present.contains(player)) {
+                        forgetViewer(player, npc);
+                    }
+                }
+            }
+            viewerCount = viewers.size();
+            hiddenCount = hidden;
+        }
+
+        /**
+         * Despawn this dimension's owned NPCs from a player who left it or disconnected
+         *
+         * @param player former viewer
+         */
+        void forgetViewer(Player player) {
+            for (NPC npc : npcs) {
+                if (npc.getEntity() != null && isOwned(npc)) {
+                    forgetViewer(player, npc);
+                }
+            }
+            skinDelivery.forget(player);
+        }
+
+        /**
+         * Despawn an owned NPC from a former viewer.
+         * The engine only despawns entities it tracks in the world, so a virtual NPC would keep
+         * the player as viewer: it would never be sent to them again and never suspend its updates.
+         */
+        private void forgetViewer(Player player, NPC npc) {
+            var entity = npc.getEntity();
+            skinDelivery.cancel(player, npc);
+            if (!entity.getViewers().contains(player)) return;
+            try {
+                entity.despawnFrom(player);
+            } catch (Exception e) {
+                log.debug("Failed to despawn NPC {} from {}: {}", npc.getName(), player.getOriginName(), e.getMessage());
+            }
+        }
+
+        /**
+         * Update the visible set of one viewer
+         *
+         * @return number of NPCs hidden from this viewer
+         */
+        private int updateViewer(ViewerState state, Player player, Location3dc loc, Collection<NPC> npcs, long spawnVersion) {
+            int cap = resolveCap(dimension.getWorld().getName(), state.deviceName);
+
+            boolean moved = distanceSquared(loc, state.x, state.y, state.z) > RECOMPUTE_DISTANCE * RECOMPUTE_DISTANCE;
+            if (moved || state.spawnVersion != spawnVersion || state.configVersion != configVersion) {
+                state.x = loc.x();
+                state.y = loc.y();
+                state.z = loc.z();
+                state.spawnVersion = spawnVersion;
+                state.configVersion = configVersion;
+                state.visible = computeVisibleSet(loc, npcs, cap);
+                state.hidden.removeIf(npc -> !npc.isSpawned());
+            }
+
+            // Enforce the visible set, the engine may have spawned NPCs to this viewer meanwhile
+            for (NPC npc : npcs) {
+                var entity = npc.getEntity();
+                if (entity == null) continue;
+
+                if (!isManaged(npc, cap)) {
+                    // No longer managed, undo an earlier hide (e.g. the cap was lifted)
+                    if (state.hidden.remove(npc) && !entity.getViewers().contains(player)) {
+                        skinDelivery.show(player, npc, distanceSquared(loc, entity.getLocation()), skinBytesPerTick);
+                    }
+                    continue;
+                }
+
+                boolean viewing = entity.getViewers().contains(player);
+                if (state.visible.contains(npc)) {
+                    // Only show NPCs this manager hid, or NPCs it owns through a view distance or virtual mode
+                    if (!viewing && (state.hidden.remove(npc) || isOwned(npc))) {
+                        skinDelivery.show(player, npc, distanceSquared(loc, entity.getLocation()), skinBytesPerTick);
+                    }
+                } else {
+                    if (viewing) {
+                        entity.despawnFrom(player);
+                    }
+                    skinDelivery.cancel(player, npc);
+                    state.hidden.add(npc);
+                }
+            }
+            return state.hidden.size();
+        }
+    }
+
+    /**
+     * Visibility state of one viewer
+     */
+    private static final class ViewerState {
+
+        private final String deviceName;
+        private final Set<NPC> hidden = new HashSet<>();
+        private Set<NPC> visible = Set.of();
+        private double x;
+        private double y;
+        private double z;
+        private long spawnVersion = -1;
+        private long configVersion = -1;
+
+        private ViewerState(String deviceName) {
+            this.deviceName = deviceName;
+        }
+    }
+}
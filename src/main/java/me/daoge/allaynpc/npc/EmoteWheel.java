@@ -0,0 +1,139 @@
+package me.daoge.allaynpc.npc;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.allaymc.api.scheduler.TaskCreator;
+import org.allaymc.api.world.Dimension;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Emote timing wheel
+ * One wheel per dimension schedules emote triggers by their next fire tick,
+ * so NPCs without a due emote cost nothing per tick.
+ * <p>
+ * Thread-safety: {@link #tick()} runs on the dimension's world thread. Registrations
+ * from other threads are handed over through a concurrent queue and picked up on the next tick.
+ *
+ * @author daoge_cmd
+ */
+@Slf4j
+public class EmoteWheel implements TaskCreator {
+
+    /**
+     * Dimension this wheel belongs to
+     */
+    @Getter
+    private final Dimension dimension;
+
+    /**
+     * Scheduled triggers, only touched by the world thread
+     */
+    private final TimingWheel<Entry> wheel = new TimingWheel<>(entry -> entry.cancelled);
+
+    /**
+     * Registrations waiting to be placed on the wheel
+     */
+    private final Queue<Entry> incoming = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of scheduled triggers
+     */
+    @Getter
+    private volatile int scheduledCount = 0;
+
+    /**
+     * Whether this wheel has been closed
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Create emote wheel
+     *
+     * @param dimension owning dimension
+     */
+    public EmoteWheel(Dimension dimension) {
+        this.dimension = dimension;
+    }
+
+    /**
+     * Start ticking this wheel on the dimension's world scheduler
+     */
+    public void start() {
+        dimension.getWorld().getScheduler().scheduleRepeating(this, this::tick, 1);
+    }
+
+    /**
+     * Stop this wheel, pending triggers are dropped
+     */
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isValid() {
+        return !closed;
+    }
+
+    /**
+     * Schedule an NPC's emote
+     *
+     * @param npc   NPC to trigger
+     * @param delay delay in ticks, at least 1
+     * @return handle used to cancel the trigger
+     */
+    public Entry schedule(NPC npc, int delay) {
+        Entry entry = new Entry(npc, Math.max(1, delay));
+        incoming.add(entry);
+        return entry;
+    }
+
+    /**
+     * Advance the wheel by one tick and fire due triggers
+     */
+    private void tick() {
+        // Place new registrations before advancing, so a delay of a full revolution
+        // does not land in the slot that is about to be visited
+        Entry pending;
+        while ((pending = incoming.poll()) != null) {
+            if (!pending.cancelled) {
+                wheel.place(pending, pending.delay);
+            }
+        }
+
+        List<Entry> due = wheel.advance();
+        scheduledCount = wheel.size();
+
+        for (Entry entry : due) {
+            try {
+                entry.npc.onEmoteDue(this);
+            } catch (Exception e) {
+                log.warn("Error playing emote for NPC {}: {}", entry.npc.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Scheduled emote trigger
+     */
+    public static final class Entry {
+
+        private final NPC npc;
+        private final int delay;
+        private volatile boolean cancelled = false;
+
+        private Entry(NPC npc, int delay) {
+            this.npc = npc;
+            this.delay = delay;
+        }
+
+        /**
+         * Cancel this trigger
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package me.daoge.allaynpc.npc;
+
+import org.allaymc.api.block.type.BlockState;
+import org.allaymc.api.math.location.Location3dc;
+import org.allaymc.api.player.Player;
+import org.allaymc.api.world.Dimension;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Line of sight cache
+ * Remembers per viewer whether the block ray from the NPC's eyes to the viewer's eyes is clear.
+ * A result is reused until the viewer moves to another block or it gets too old,
+ * so walls built or removed meanwhile are noticed at a low rate.
+ * <p>
+ * Only blocks that fully dampen light (stone, dirt, planks, ...) block the ray; glass, panes, plants,
+ * torches, signs, carpets, water and the like are seen through. Only used from the NPC's world thread.
+ *
+ * @author daoge_cmd
+ */
+class LineOfSight {
+
+    /**
+     * Maximum age of a cached result (milliseconds)
+     */
+    private static final long RECHECK_MILLIS = 2000;
+
+    /**
+     * Maximum blocks traversed by a ray, farther viewers are treated as visible
+     */
+    private static final int MAX_STEPS = 128;
+
+    /**
+     * Player eye height (blocks)
+     */
+    private static final double EYE_HEIGHT = 1.62;
+
+    /**
+     * Light dampening of fully opaque blocks
+     */
+    private static final int OPAQUE_LIGHT_DAMPENING = 15;
+
+    /**
+     * Cached results (viewer -> entry)
+     */
+    private final Map<Player, Entry> entries = new HashMap<>();
+
+    /**
+     * Check if a viewer can see the NPC
+     *
+     * @param player   viewer
+     * @param npcLoc   NPC location
+     * @param npcScale NPC scale, used for its eye height
+     * @return true if no opaque block lies between both eyes
+     */
+    boolean canSee(Player player, Location3dc npcLoc, double npcScale) {
+        Location3dc playerLoc = player.getControlledEntity().getLocation();
+        int blockX = (int) Math.floor(playerLoc.x());
+        int blockY = (int) Math.floor(playerLoc.y());
+        int blockZ = (int) Math.floor(playerLoc.z());
+        long now = System.currentTimeMillis();
+
+        Entry entry = entries.get(player);
+        if (entry != null && entry.blockX == blockX && entry.blockY == blockY && entry.blockZ == blockZ
+                && now - entry.checkedAt < RECHECK_MILLIS) {
+            return entry.visible;
+        }
+
+        boolean visible = raycast(
+                npcLoc.dimension(),
+                npcLoc.x(), npcLoc.y() + EYE_HEIGHT * npcScale, npcLoc.z(),
+                playerLoc.x(), playerLoc.y() + EYE_HEIGHT, playerLoc.z()
+        );
+
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(player, entry);
+        }
+        entry.blockX = blockX;
+        entry.blockY = blockY;
+        entry.blockZ = blockZ;
+        entry.checkedAt = now;
+        entry.visible = visible;
+        return visible;
+    }
+
+    /**
+     * Forget viewers that no longer view the NPC
+     *
+     * @param viewers current viewers
+     */
+    void retain(Collection<?> viewers) {
+        if (!entries.isEmpty()) {
+            entries.keySet().retainAll(viewers);
+        }
+    }
+
+    /**
+     * Walk the blocks between two points (3D DDA) and check that none of them is opaque.
+     * The blocks containing both end points are not checked.
+     */
+    private static boolean raycast(Dimension dimension, double x0, double y0, double z0, double x1, double y1, double z1) {
+        int x = (int) Math.floor(x0);
+        int y = (int) Math.floor(y0);
+        int z = (int) Math.floor(z0);
+        int endX = (int) Math.floor(x1);
+        int endY = (int) Math.floor(y1);
+        int endZ = (int) Math.floor(z1);
+
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double dz = z1 - z0;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        int stepZ = dz > 0 ? 1 : -1;
+
+        // Ray parameter (0..1) at which the next block boundary on each axis is crossed
+        double deltaX = dx != 0 ? Math.abs(1 / dx) : Double.MAX_VALUE;
+        double deltaY = dy != 0 ? Math.abs(1 / dy) : Double.MAX_VALUE;
+        double deltaZ = dz != 0 ? Math.abs(1 / dz) : Double.MAX_VALUE;
+        double maxX = dx != 0 ? (stepX > 0 ? x + 1 - x0 : x0 - x) * deltaX : Double.MAX_VALUE;
+        double maxY = dy != 0 ? (stepY > 0 ? y + 1 - y0 : y0 - y) * deltaY : Double.MAX_VALUE;
+        double maxZ = dz != 0 ? (stepZ > 0 ? z + 1 - z0 : z0 - z) * deltaZ : Double.MAX_VALUE;
+
+        for (int step = 0; step < MAX_STEPS; step++) {
+            if (x == endX && y == endY && z == endZ) {
+                return true;
+            }
+            // Next boundary lies beyond the end point
+            if (Math.min(maxX, Math.min(maxY, maxZ)) > 1) {
+                return true;
+            }
+
+            if (maxX < maxY && maxX < maxZ) {
+                x += stepX;
+                maxX += deltaX;
+            } else if (maxY < maxZ) {
+                y += stepY;
+                maxY += deltaY;
+            } else {
+                z += stepZ;
+                maxZ += deltaZ;
+            }
+
+            if ((x != endX || y != endY || z != endZ)
+                    && isOpaque(dimension.getBlockState(x, y, z))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if a block hides what is behind it
+     *
+     * @param blockState block state
+     * @return true if the block is fully opaque
+     */
+    private static boolean isOpaque(BlockState blockState) {
+        return blockState.getBlockStateData().lightDampening() >= OPAQUE_LIGHT_DAMPENING;
+    }
+
+    /**
+     * Cached result for one viewer
+     */
+    private static final class Entry {
+
+        private int blockX;
+        private int blockY;
+        private int blockZ;
+        private long checkedAt;
+        private boolean visible;
+    }
+}
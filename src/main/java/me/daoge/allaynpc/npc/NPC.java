@@ -4,36 +4,52 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import me.daoge.allaynpc.AllayNPC;
 import me.daoge.allaynpc.config.NPCConfig;
+import me.daoge.allaynpc.manager.ChunkPinRegistry;
+import me.daoge.allaynpc.manager.DimensionShard;
+import me.daoge.allaynpc.manager.EmoteBudget;
+import me.daoge.allaynpc.manager.NPCManager;
+import me.daoge.allaynpc.manager.SkinManager;
+import me.daoge.allaynpc.util.ItemUtil;
 import me.daoge.allaynpc.util.PlaceholderUtil;
+import me.daoge.allaynpc.util.RotationUtil;
 import org.allaymc.api.container.ContainerTypes;
+import org.allaymc.api.entity.Entity;
 import org.allaymc.api.entity.EntityInitInfo;
 import org.allaymc.api.entity.interfaces.EntityPlayer;
+import org.allaymc.api.entity.type.EntityType;
 import org.allaymc.api.entity.type.EntityTypes;
 import org.allaymc.api.item.ItemStack;
-import org.allaymc.api.math.MathUtils;
 import org.allaymc.api.math.location.Location3d;
 import org.allaymc.api.math.location.Location3dc;
 import org.allaymc.api.player.GameMode;
 import org.allaymc.api.player.Player;
 import org.allaymc.api.player.Skin;
 import org.allaymc.api.registry.Registries;
+import org.allaymc.api.scheduler.Scheduler;
+import org.allaymc.api.scheduler.TaskCreator;
 import org.allaymc.api.server.Server;
 import org.allaymc.api.utils.TextFormat;
 import org.allaymc.api.utils.identifier.Identifier;
 import org.allaymc.api.world.Dimension;
 import org.allaymc.api.world.World;
 import org.allaymc.api.world.WorldViewer;
-import org.allaymc.api.world.chunk.FakeChunkLoader;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3d;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * NPC entity wrapper class
- * Wraps EntityPlayer entity and provides NPC-specific functionality
+ * Wraps the NPC entity (a player by default) and provides NPC-specific functionality
  *
  * @author daoge_cmd
  */
@@ -52,24 +68,97 @@ public class NPC {
     private static final int PAPI_UPDATE_INTERVAL = 20;
 
     /**
-     * NPC configuration
+     * Viewer check interval while the update task is suspended (ticks)
      */
-    private final NPCConfig config;
+    private static final int VIEWER_PROBE_INTERVAL = 20;
 
     /**
-     * EntityPlayer entity
+     * Rotation change (degrees) below which no look update is sent
      */
-    private EntityPlayer entity;
+    private static final double ROTATION_EPSILON = 0.5;
 
     /**
-     * FakeChunkLoader to keep the NPC's chunk loaded
+     * Look update counters, shown in diagnostics
      */
-    private FakeChunkLoader chunkLoader;
+    private static final LongAdder LOOK_UPDATES_SENT = new LongAdder();
+    private static final LongAdder LOOK_UPDATES_SKIPPED = new LongAdder();
 
     /**
-     * Last emote play time (tick)
+     * Current NPC configuration snapshot, replaced as a whole when the config is edited.
+     * Methods that read several options copy it to a local first, so they work on one snapshot.
      */
-    private long lastEmoteTick = 0;
+    private volatile NPCConfig config;
+
+    /**
+     * NPC entity, an EntityPlayer unless another entity type is configured
+     */
+    private Entity entity;
+
+    /**
+     * Runtime shard of the NPC's dimension, null while not spawned
+     */
+    @Nullable
+    private volatile DimensionShard shard;
+
+    /**
+     * Shared chunk pin keeping the NPC's chunk loaded
+     */
+    @Nullable
+    private ChunkPinRegistry.PinKey chunkPin;
+
+    /**
+     * Name of the skin referenced in the skin manager, null if using the default skin
+     */
+    @Nullable
+    private String acquiredSkin;
+
+    /**
+     * Skin {@link #skinBytes} was measured for, only touched by the world thread
+     */
+    @Nullable
+    private Skin measuredSkin;
+
+    /**
+     * Encoded size of {@link #measuredSkin}
+     */
+    private int skinBytes;
+
+    /**
+     * Scheduled emote trigger on the dimension's emote wheel, null if none
+     */
+    @Nullable
+    private EmoteWheel.Entry emoteEntry;
+
+    /**
+     * Current update task, null if none is scheduled
+     */
+    @Nullable
+    private UpdateTask updateTask;
+
+    /**
+     * Current update mode
+     */
+    private volatile UpdateMode updateMode = UpdateMode.STATIC;
+
+    /**
+     * Whether the NPC turns towards its viewers
+     */
+    private boolean dynamicLook;
+
+    /**
+     * Whether the display name or score tag contains placeholders
+     */
+    private boolean dynamicText;
+
+    /**
+     * Last rotation sent to each viewer (viewer -> {yaw, pitch}), only touched by the NPC's update task
+     */
+    private final Map<Player, double[]> sentRotations = new HashMap<>();
+
+    /**
+     * Cached line of sight results per viewer
+     */
+    private final LineOfSight lineOfSight = new LineOfSight();
 
     /**
      * Internal tick counter for this NPC
@@ -85,12 +174,33 @@ public class NPC {
         this.config = config;
     }
 
+    /**
+     * Publish a new config snapshot and re-evaluate the scheduled work, may be called from any thread.
+     * The scheduled work is re-evaluated on the world thread of the NPC's dimension, which also fires emotes.
+     * Options applied at spawn (skin, equipment, position...) only change on respawn.
+     *
+     * @param config new NPC configuration
+     */
+    public void updateConfig(NPCConfig config) {
+        this.config = config;
+        DimensionShard shard = this.shard;
+        if (shard != null) {
+            shard.post(() -> {
+                // Skip if the NPC was removed or published another config meanwhile
+                if (entity == null || this.config != config) return;
+                refreshUpdateTask(config);
+                rescheduleEmote(config);
+            });
+        }
+    }
+
     /**
      * Spawn NPC into world
      *
      * @return whether spawn was successful
      */
     public boolean spawn() {
+        NPCConfig config = this.config;
         if (isSpawned()) {
             log.warn("NPC {} is already spawned", config.getName());
             return false;
@@ -109,128 +219,267 @@ public class NPC {
             return false;
         }
 
-        // Use getOverWorld() to get overworld dimension
-        Dimension dimension = world.getOverWorld();
+        // Every dimension of a world is ticked by that world's thread
+        Dimension dimension = world.getDimension(pos.getDimension());
         if (dimension == null) {
-            log.error("Dimension not found for NPC {}", config.getName());
+            log.error("Dimension {} not found in world {} for NPC {}", pos.getDimension(), pos.getWorld(), config.getName());
             return false;
         }
 
         try {
-            // Create EntityPlayer entity
+            // Resolve configured entity type
+            EntityType<?> entityType = resolveEntityType(config);
+            if (entityType == null) {
+                log.error("Unknown entity type {} for NPC {}", config.getEntityType(), config.getName());
+                return false;
+            }
+
+            // Create entity
             EntityInitInfo initInfo = EntityInitInfo.builder()
                     .dimension(dimension)
                     .pos(pos.getX(), pos.getY(), pos.getZ())
                     .rot(pos.getYaw(), pos.getPitch())
                     .build();
 
-            entity = EntityTypes.PLAYER.createEntity(initInfo);
+            entity = entityType.createEntity(initInfo);
 
-            // Set display name (use colorize to replace color codes)
+            // Set name tag (use colorize to replace color codes)
             String displayName = TextFormat.colorize(config.getDisplayName());
-            entity.setDisplayName(displayName);
-
-            // Set name tag
             entity.setNameTag(displayName);
             entity.setNameTagAlwaysShow(config.isAlwaysShowName());
 
-            // Set NPC as immobile (can look around but cannot move)
+            // Set NPC as immobile (can look around but cannot move), this also keeps mobs from walking off
             entity.setImmobile(true);
 
-            // Set gamemode to survival so EntityDamageEvent can be triggered
-            entity.setGameMode(GameMode.SURVIVAL);
-
             // Apply scale
             entity.setScale(config.getScale());
 
-            // Apply skin BEFORE spawning
-            applySkin();
+            // Skin, equipment and player list entry only exist for player NPCs
+            if (entity instanceof EntityPlayer player) {
+                // Set display name
+                player.setDisplayName(displayName);
 
-            // Apply held item
-            applyHeldItem();
+                // Set gamemode to survival so EntityDamageEvent can be triggered
+                player.setGameMode(GameMode.SURVIVAL);
 
-            // Apply armor
-            applyArmor();
+                // Apply skin BEFORE spawning
+                applySkin(player, config);
+
+                // Apply held item
+                applyHeldItem(player, config);
+
+                // Apply armor
+                applyArmor(player, config);
+            }
 
             // Apply score tag
             applyScoreTag();
 
-            // Add entity to world (engine handles spawning to players automatically)
-            dimension.getEntityManager().addEntity(entity, () -> {
-                log.debug("NPC {} spawned at {} in world {}", config.getName(), pos.toVector3d(), pos.getWorld());
-            });
+            if (config.isVirtual()) {
+                // The entity object exists like for any NPC, it is just never added to the world,
+                // so the world does not tick it and the visibility manager sends it to viewers
+                log.debug("Virtual NPC {} created at {} in world {}", config.getName(), pos.toVector3d(), pos.getWorld());
+            } else {
+                // Add entity to world (engine handles spawning to players automatically)
+                Entity spawned = entity;
+                dimension.getEntityManager().addEntity(spawned, () -> {
+                    log.debug("NPC {} spawned at {} in world {}", config.getName(), pos.toVector3d(), pos.getWorld());
+                    if (!(spawned instanceof EntityPlayer)) {
+                        removeSavedCopies(dimension, spawned);
+                    }
+                });
+
+                // Pin NPC's chunk, loaders are shared between NPCs in the same chunk
+                chunkPin = AllayNPC.getInstance().getNpcManager().getChunkPinRegistry()
+                        .pin(dimension, pos.getX(), pos.getZ());
+            }
 
-            // Create and add FakeChunkLoader to keep NPC's chunk loaded (radius=1)
-            chunkLoader = new FakeChunkLoader(entity::getLocation, 1);
-            dimension.getChunkManager().addChunkLoader(chunkLoader);
+            // Start update task on entity's scheduler, only if the NPC has dynamic features
+            refreshUpdateTask(config);
 
-            // Start update task on entity's scheduler
-            startUpdateTask();
+            // Register emote trigger on the dimension's emote wheel
+            scheduleEmote(config);
 
+            shard = AllayNPC.getInstance().getNpcManager().getShard(dimension);
             return true;
 
         } catch (Exception e) {
             log.error("Failed to spawn NPC {}", config.getName(), e);
             // Rollback: clean up any partially initialized resources
-            cleanupFailedSpawn(dimension);
+            cleanupFailedSpawn(dimension, config);
             return false;
         }
     }
 
     /**
-     * Start the NPC update task on the entity's scheduler.
-     * Handles look-at-player, emotes, and PAPI placeholder updates.
+     * Remove copies of a non-player NPC entity left in its chunk by an earlier run.
+     * Players are never saved with their chunk but mobs are, so a chunk saved while the NPC
+     * was in the world (autosave, crash) would bring back a plain mob next to the NPC.
+     * Copies are recognized by entity type, name tag and position. Runs on the world thread.
+     *
+     * @param dimension NPC's dimension
+     * @param spawned   entity just added for this NPC
+     */
+    private void removeSavedCopies(Dimension dimension, Entity spawned) {
+        var chunk = dimension.getChunkManager().getChunk(getChunkX(), getChunkZ());
+        if (chunk == null) return;
+
+        Location3dc npcLoc = spawned.getLocation();
+        NPCManager npcManager = AllayNPC.getInstance().getNpcManager();
+        for (Entity other : new ArrayList<>(chunk.getEntities().values())) {
+            if (other == spawned || other.getEntityType() != spawned.getEntityType()) continue;
+            if (!spawned.getNameTag().equals(other.getNameTag())) continue;
+
+            Location3dc otherLoc = other.getLocation();
+            double dx = otherLoc.x() - npcLoc.x();
+            double dy = otherLoc.y() - npcLoc.y();
+            double dz = otherLoc.z() - npcLoc.z();
+            if (dx * dx + dy * dy + dz * dz > 0.25 || npcManager.getNPCByEntity(other) != null) continue;
+
+            dimension.getEntityManager().removeEntity(other);
+            log.debug("Removed saved copy of NPC {}", config.getName());
+        }
+    }
+
+    /**
+     * Classify the NPC's dynamic features and (re)schedule only the work it needs.
+     * Handles look-at-player and PAPI placeholder updates. Emotes are driven by the emote wheel.
+     * Called on spawn and whenever the config changes.
+     */
+    public void refreshUpdateTask() {
+        refreshUpdateTask(config);
+    }
+
+    /**
+     * Classify the dynamic features of a config snapshot and (re)schedule only the work it needs
+     *
+     * @param config config snapshot of the caller
+     */
+    private synchronized void refreshUpdateTask(NPCConfig config) {
+        cancelUpdateTask();
+        if (entity == null) return;
+
+        dynamicLook = config.isLookAtPlayer();
+        dynamicText = containsPlaceholders(config.getDisplayName()) || containsPlaceholders(config.getScoreTag());
+
+        if (!dynamicLook && !dynamicText) {
+            // Nothing changes over time, no task at all
+            updateMode = UpdateMode.STATIC;
+            return;
+        }
+
+        int interval = dynamicLook ? UPDATE_INTERVAL : PAPI_UPDATE_INTERVAL;
+        updateTask = new UpdateTask();
+        updateMode = UpdateMode.ACTIVE;
+        taskScheduler(config).scheduleRepeating(updateTask, () -> tick(interval), interval);
+    }
+
+    /**
+     * Get the scheduler NPC tasks run on.
+     * Virtual NPCs are never ticked by the world, so they use the world's scheduler instead of the entity's.
+     *
+     * @param config config snapshot of the caller
      */
-    private void startUpdateTask() {
-        entity.getScheduler().scheduleRepeating(entity, this::tick, UPDATE_INTERVAL);
+    private Scheduler taskScheduler(NPCConfig config) {
+        return config.isVirtual() ? entity.getDimension().getWorld().getScheduler() : entity.getScheduler();
+    }
+
+    /**
+     * Cancel the current update task
+     */
+    private synchronized void cancelUpdateTask() {
+        if (updateTask != null) {
+            updateTask.cancel();
+            updateTask = null;
+        }
     }
 
     /**
      * NPC tick method, called by the entity scheduler.
+     *
+     * @param interval ticks since the last call
      */
-    private void tick() {
-        tickCounter += UPDATE_INTERVAL;
+    private void tick(int interval) {
+        if (entity.getViewers().isEmpty()) {
+            suspendUpdateTask();
+            return;
+        }
+
+        tickCounter += interval;
+        long start = System.nanoTime();
 
         try {
             // Update look-at-player
-            lookAtNearestPlayer();
-
-            // Check and play emotes
-            if (shouldPlayEmote(tickCounter)) {
-                playEmote();
+            if (dynamicLook) {
+                lookAtViewers();
             }
 
             // Update display name and score tags every second for PAPI support
-            if (tickCounter % PAPI_UPDATE_INTERVAL == 0) {
-                if (hasDisplayNamePlaceholders()) {
-                    updateDisplayName();
-                }
-                if (hasScoreTag()) {
-                    updateScoreTag();
-                }
+            if (dynamicText && tickCounter % PAPI_UPDATE_INTERVAL == 0) {
+                updatePlaceholders();
             }
         } catch (Exception e) {
             log.warn("Error during NPC {} tick: {}", config.getName(), e.getMessage());
         }
+
+        if (shard != null) {
+            shard.addTickNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Replace the update task with a slow viewer probe until someone can see the NPC again
+     */
+    private synchronized void suspendUpdateTask() {
+        cancelUpdateTask();
+        updateTask = new UpdateTask();
+        updateMode = UpdateMode.SUSPENDED;
+        taskScheduler(config).scheduleRepeating(updateTask, this::probeViewers, VIEWER_PROBE_INTERVAL);
+    }
+
+    /**
+     * Resume the update task once the NPC has a viewer
+     */
+    private void probeViewers() {
+        if (entity.getViewers().isEmpty()) return;
+
+        refreshUpdateTask();
+        // Placeholders may be stale after the pause
+        if (dynamicText) {
+            updatePlaceholders();
+        }
+    }
+
+    /**
+     * Update display name and score tag placeholders
+     */
+    private void updatePlaceholders() {
+        if (hasDisplayNamePlaceholders()) {
+            updateDisplayName();
+        }
+        if (hasScoreTagPlaceholders()) {
+            updateScoreTag();
+        }
     }
 
     /**
      * Clean up resources after a failed spawn attempt
      *
      * @param dimension the dimension where spawn was attempted
+     * @param config    config snapshot the spawn used
      */
-    private void cleanupFailedSpawn(Dimension dimension) {
+    private void cleanupFailedSpawn(Dimension dimension, NPCConfig config) {
+        cancelEmote();
+        cancelUpdateTask();
         try {
-            if (chunkLoader != null && dimension != null) {
-                dimension.getChunkManager().removeChunkLoader(chunkLoader);
-                chunkLoader = null;
-            }
-            if (entity != null && dimension != null) {
+            releaseChunkPin();
+            if (entity != null && dimension != null && !config.isVirtual()) {
                 dimension.getEntityManager().removeEntity(entity);
             }
         } catch (Exception cleanupError) {
             log.warn("Error during spawn cleanup for NPC {}: {}", config.getName(), cleanupError.getMessage());
         } finally {
+            releaseSkin();
             entity = null;
         }
     }
@@ -243,14 +492,21 @@ public class NPC {
             return;
         }
 
+        cancelEmote();
+        cancelUpdateTask();
+
         try {
             Dimension dimension = entity.getDimension();
-            if (dimension != null) {
-                // Remove FakeChunkLoader first
-                if (chunkLoader != null) {
-                    dimension.getChunkManager().removeChunkLoader(chunkLoader);
-                    chunkLoader = null;
+            if (config.isVirtual()) {
+                // Not in the world, despawn from the viewers it was sent to
+                for (var viewer : new ArrayList<>(entity.getViewers())) {
+                    if (viewer instanceof Player player) {
+                        entity.despawnFrom(player);
+                    }
                 }
+            } else if (dimension != null) {
+                // Release chunk pin first
+                releaseChunkPin();
                 // Engine handles despawning from players automatically
                 dimension.getEntityManager().removeEntity(entity);
             }
@@ -258,56 +514,164 @@ public class NPC {
             log.error("Failed to remove NPC {}", config.getName(), e);
         }
 
+        releaseSkin();
         entity = null;
+        shard = null;
     }
 
     /**
-     * Apply skin and cape to NPC
+     * Release the chunk pin held by this NPC
      */
-    private void applySkin() {
-        if (entity == null) return;
+    private void releaseChunkPin() {
+        if (chunkPin != null) {
+            AllayNPC.getInstance().getNpcManager().getChunkPinRegistry().unpin(chunkPin);
+            chunkPin = null;
+        }
+    }
 
+    /**
+     * Apply skin and cape to NPC.
+     * If the configured skin is not in memory yet, the default skin is applied and the
+     * real skin is loaded in the background, then swapped in without respawning.
+     */
+    private void applySkin(EntityPlayer player, NPCConfig config) {
+        SkinManager skinManager = AllayNPC.getInstance().getSkinManager();
         String skinName = config.getSkin();
         Skin skin;
 
         if (skinName != null && !skinName.isEmpty()) {
-            skin = AllayNPC.getInstance().getSkinManager().getSkin(skinName);
+            // Hold a reference so the skin stays resident while this NPC is spawned
+            releaseSkin();
+            skinManager.retainSkin(skinName);
+            acquiredSkin = skinName;
+
+            skin = skinManager.getResidentSkin(skinName);
+            if (skin == null) {
+                skin = skinManager.getDefaultSkin();
+                loadSkinAsync(player, skinName, config);
+            }
         } else {
-            skin = AllayNPC.getInstance().getSkinManager().getDefaultSkin();
+            skin = skinManager.getDefaultSkin();
         }
 
         if (skin != null) {
-            // Apply cape if configured
-            String capeName = config.getCape();
-            if (capeName != null && !capeName.isEmpty()) {
-                Skin.ImageData capeData = AllayNPC.getInstance().getCapeManager().getCape(capeName);
-                if (capeData != null) {
-                    skin = skin.toBuilder()
-                            .capeData(capeData)
-                            .capeId(UUID.randomUUID().toString())
-                            .build();
-                }
+            player.setSkin(withCape(skin, config));
+        }
+    }
+
+    /**
+     * Get the skin data a viewer receives when this NPC is shown to them
+     *
+     * @return skin, cape and geometry bytes, 0 for non-player NPCs
+     */
+    public int getSkinBytes() {
+        if (!(entity instanceof EntityPlayer player) || player.getSkin() == null) {
+            return 0;
+        }
+
+        Skin skin = player.getSkin();
+        if (skin != measuredSkin) {
+            // Geometry is sent as UTF-8, String#length would count UTF-16 chars
+            int bytes = skin.skinData().data().length + skin.skinGeometry().getBytes(StandardCharsets.UTF_8).length;
+            if (skin.capeData() != null) {
+                bytes += skin.capeData().data().length;
             }
+            measuredSkin = skin;
+            skinBytes = bytes;
+        }
+        return skinBytes;
+    }
 
-            entity.setSkin(skin);
+    /**
+     * Load skin in the background and hot-swap it on the entity's thread when ready
+     *
+     * @param target   player entity of this NPC
+     * @param skinName skin name
+     * @param config   config snapshot the NPC was spawned with
+     */
+    private void loadSkinAsync(EntityPlayer target, String skinName, NPCConfig config) {
+        AllayNPC.getInstance().getSkinManager().getSkinAsync(skinName).thenAccept(skin -> {
+            if (skin == null || entity != target) return;
+
+            TaskCreator owner = config.isVirtual() ? AllayNPC.getInstance() : target;
+            taskScheduler(config).scheduleDelayed(owner, () -> {
+                // Skip if the NPC was removed or its skin changed meanwhile
+                if (entity != target || !skinName.equals(acquiredSkin)) return;
+                target.setSkin(withCape(skin, config));
+                log.debug("Applied skin {} to NPC {}", skinName, config.getName());
+            }, 1);
+        }).exceptionally(e -> {
+            log.warn("Failed to load skin {} for NPC {}", skinName, config.getName(), e);
+            return null;
+        });
+    }
+
+    /**
+     * Resolve the configured entity type
+     *
+     * @return entity type, or null if unknown
+     */
+    @Nullable
+    private static EntityType<?> resolveEntityType(NPCConfig config) {
+        String typeId = config.getEntityType();
+        if (typeId == null || typeId.isEmpty()) {
+            return EntityTypes.PLAYER;
+        }
+
+        try {
+            return Registries.ENTITIES.get(new Identifier(typeId));
+        } catch (Exception e) {
+            return null;
         }
     }
 
     /**
-     * Apply held item to NPC
+     * Apply configured cape to skin
+     *
+     * @param skin   base skin
+     * @param config config snapshot the NPC was spawned with
+     * @return skin with cape, or the base skin if no cape is configured
      */
-    private void applyHeldItem() {
-        if (entity == null) return;
+    private static Skin withCape(Skin skin, NPCConfig config) {
+        String capeName = config.getCape();
+        if (capeName == null || capeName.isEmpty()) {
+            return skin;
+        }
+
+        Skin.ImageData capeData = AllayNPC.getInstance().getCapeManager().getCape(capeName);
+        if (capeData == null) {
+            return skin;
+        }
+
+        return skin.toBuilder()
+                .capeData(capeData)
+                .capeId(UUID.randomUUID().toString())
+                .build();
+    }
 
+    /**
+     * Release the skin reference held by this NPC
+     */
+    private void releaseSkin() {
+        if (acquiredSkin != null) {
+            AllayNPC.getInstance().getSkinManager().releaseSkin(acquiredSkin);
+            acquiredSkin = null;
+        }
+    }
+
+    /**
+     * Apply held item to NPC
+     */
+    private void applyHeldItem(EntityPlayer player, NPCConfig config) {
         String heldItemId = config.getHeldItem();
         if (heldItemId == null || heldItemId.isEmpty()) {
             return;
         }
 
         try {
-            ItemStack itemStack = createItemStack(heldItemId);
+            ItemStack itemStack = ItemUtil.createItemStack(heldItemId);
             if (itemStack != null) {
-                entity.setItemInHand(itemStack);
+                player.setItemInHand(itemStack);
             }
         } catch (Exception e) {
             log.warn("Failed to set held item for NPC {}: {}", config.getName(), heldItemId, e);
@@ -317,20 +681,18 @@ public class NPC {
     /**
      * Apply armor to NPC
      */
-    private void applyArmor() {
-        if (entity == null) return;
-
+    private void applyArmor(EntityPlayer player, NPCConfig config) {
         NPCConfig.ArmorConfig armor = config.getArmor();
         if (armor == null || !armor.hasAnyArmor()) {
             return;
         }
 
         try {
-            var armorContainer = entity.getContainer(ContainerTypes.ARMOR);
+            var armorContainer = player.getContainer(ContainerTypes.ARMOR);
 
             // Set helmet
             if (!armor.getHelmet().isEmpty()) {
-                ItemStack helmet = createItemStack(armor.getHelmet());
+                ItemStack helmet = ItemUtil.createItemStack(armor.getHelmet());
                 if (helmet != null) {
                     armorContainer.setHelmet(helmet);
                 }
@@ -338,7 +700,7 @@ public class NPC {
 
             // Set chestplate
             if (!armor.getChestplate().isEmpty()) {
-                ItemStack chestplate = createItemStack(armor.getChestplate());
+                ItemStack chestplate = ItemUtil.createItemStack(armor.getChestplate());
                 if (chestplate != null) {
                     armorContainer.setChestplate(chestplate);
                 }
@@ -346,7 +708,7 @@ public class NPC {
 
             // Set leggings
             if (!armor.getLeggings().isEmpty()) {
-                ItemStack leggings = createItemStack(armor.getLeggings());
+                ItemStack leggings = ItemUtil.createItemStack(armor.getLeggings());
                 if (leggings != null) {
                     armorContainer.setLeggings(leggings);
                 }
@@ -354,7 +716,7 @@ public class NPC {
 
             // Set boots
             if (!armor.getBoots().isEmpty()) {
-                ItemStack boots = createItemStack(armor.getBoots());
+                ItemStack boots = ItemUtil.createItemStack(armor.getBoots());
                 if (boots != null) {
                     armorContainer.setBoots(boots);
                 }
@@ -365,26 +727,6 @@ public class NPC {
         }
     }
 
-    /**
-     * Create ItemStack from item ID
-     *
-     * @param itemId item ID
-     * @return ItemStack object, null if creation failed
-     */
-    @Nullable
-    private ItemStack createItemStack(String itemId) {
-        try {
-            Identifier identifier = new Identifier(itemId);
-            var itemType = Registries.ITEMS.get(identifier);
-            if (itemType != null) {
-                return itemType.createItemStack(1);
-            }
-        } catch (Exception e) {
-            log.warn("Invalid item ID: {}", itemId);
-        }
-        return null;
-    }
-
     /**
      * Update display name with PAPI placeholders
      * Should be called periodically if displayName contains placeholders
@@ -400,7 +742,9 @@ public class NPC {
         // Parse PAPI placeholders and color codes
         String parsed = PlaceholderUtil.parse(null, displayName);
         String colorized = TextFormat.colorize(parsed);
-        entity.setDisplayName(colorized);
+        if (entity instanceof EntityPlayer player) {
+            player.setDisplayName(colorized);
+        }
         entity.setNameTag(colorized);
     }
 
@@ -410,8 +754,7 @@ public class NPC {
      * @return true if display name contains placeholders
      */
     public boolean hasDisplayNamePlaceholders() {
-        String displayName = config.getDisplayName();
-        return displayName != null && PlaceholderUtil.containsPlaceholders(displayName);
+        return containsPlaceholders(config.getDisplayName());
     }
 
     /**
@@ -456,10 +799,24 @@ public class NPC {
         return scoreTag != null && !scoreTag.isEmpty();
     }
 
+    /**
+     * Check if NPC score tag contains PAPI placeholders
+     *
+     * @return true if score tag contains placeholders
+     */
+    public boolean hasScoreTagPlaceholders() {
+        return containsPlaceholders(config.getScoreTag());
+    }
+
+    private static boolean containsPlaceholders(@Nullable String text) {
+        return text != null && PlaceholderUtil.containsPlaceholders(text);
+    }
+
     /**
      * Play emote action
      */
     public void playEmote() {
+        NPCConfig config = this.config;
         if (!isSpawned()) return;
 
         NPCConfig.EmoteConfig emoteConfig = config.getEmote();
@@ -467,92 +824,264 @@ public class NPC {
             return;
         }
 
-        try {
-            UUID emoteUuid = UUID.fromString(emoteConfig.getId());
-            // Send emote to viewers only
-            entity.forEachViewers(viewer -> viewer.viewPlayerEmote(entity, emoteUuid, true));
-        } catch (IllegalArgumentException e) {
-            log.warn("Invalid emote UUID for NPC {}: {}", config.getName(), emoteConfig.getId());
+        if (!(entity instanceof EntityPlayer npcPlayer)) {
+            return;
+        }
+
+        UUID emoteUuid = emoteConfig.getUuid();
+        double radius = emoteConfig.getRadius();
+        Location3dc npcLoc = entity.getLocation();
+        EmoteBudget budget = AllayNPC.getInstance().getNpcManager().getEmoteBudget();
+
+        // Send emote to nearby viewers that still have budget left
+        for (Player viewer : collectViewers(config)) {
+            if (radius > 0) {
+                Location3dc playerLoc = viewer.getControlledEntity().getLocation();
+                double dx = playerLoc.x() - npcLoc.x();
+                double dy = playerLoc.y() - npcLoc.y();
+                double dz = playerLoc.z() - npcLoc.z();
+                if (dx * dx + dy * dy + dz * dz > radius * radius) continue;
+            }
+            if (!budget.tryAcquire(viewer)) continue;
+            viewer.viewPlayerEmote(npcPlayer, emoteUuid, true);
         }
     }
 
     /**
-     * Check if emote should be played
+     * Register the next emote trigger on the dimension's emote wheel
      *
-     * @param currentTick current tick
-     * @return whether should play
+     * @param config config snapshot of the caller
      */
-    public boolean shouldPlayEmote(long currentTick) {
+    private void scheduleEmote(NPCConfig config) {
         NPCConfig.EmoteConfig emoteConfig = config.getEmote();
-        if (emoteConfig == null || !emoteConfig.isEnabled()) {
-            return false;
+        // Emotes are player animations
+        if (!(entity instanceof EntityPlayer) || emoteConfig == null || !emoteConfig.isEnabled()) {
+            return;
         }
 
-        if (currentTick - lastEmoteTick >= emoteConfig.getInterval()) {
-            lastEmoteTick = currentTick;
-            return true;
+        EmoteWheel wheel = AllayNPC.getInstance().getNpcManager().getEmoteWheel(entity.getDimension());
+        emoteEntry = wheel.schedule(this, nextEmoteDelay(emoteConfig));
+    }
+
+    /**
+     * Cancel the pending emote trigger
+     */
+    private void cancelEmote() {
+        if (emoteEntry != null) {
+            emoteEntry.cancel();
+            emoteEntry = null;
         }
+    }
 
-        return false;
+    /**
+     * Re-evaluate emote scheduling after the emote config changed.
+     * Runs on the dimension's world thread, like {@link #onEmoteDue}, so only one emote chain stays alive.
+     *
+     * @param config config snapshot to schedule from
+     */
+    private void rescheduleEmote(NPCConfig config) {
+        cancelEmote();
+        scheduleEmote(config);
     }
 
     /**
-     * Make NPC look at all viewers individually.
-     * Each player will see the NPC looking directly at them using WorldViewer.viewEntityLocation().
+     * Called by the emote wheel when this NPC's emote is due
+     *
+     * @param wheel emote wheel that fired
      */
-    public void lookAtNearestPlayer() {
+    void onEmoteDue(EmoteWheel wheel) {
+        NPCConfig.EmoteConfig emoteConfig = config.getEmote();
+        if (entity == null || emoteConfig == null || !emoteConfig.isEnabled()) {
+            emoteEntry = null;
+            return;
+        }
+
+        // Entity may still be joining the world, keep the trigger alive until it is
+        if (isSpawned()) {
+            playEmote();
+        }
+        emoteEntry = wheel.schedule(this, nextEmoteDelay(emoteConfig));
+    }
+
+    /**
+     * Compute delay until the next emote, applying configured jitter
+     *
+     * @param emoteConfig emote config
+     * @return delay in ticks
+     */
+    private static int nextEmoteDelay(NPCConfig.EmoteConfig emoteConfig) {
+        int delay = emoteConfig.getInterval();
+        int jitter = emoteConfig.getJitter();
+        if (jitter > 0) {
+            delay += ThreadLocalRandom.current().nextInt(-jitter, jitter + 1);
+        }
+        return Math.max(1, delay);
+    }
+
+    /**
+     * Make NPC look at its viewers according to the configured look mode
+     */
+    public void lookAtViewers() {
+        NPCConfig config = this.config;
         if (!isSpawned() || !config.isLookAtPlayer()) return;
 
+        if (config.getLookMode() == NPCConfig.LookMode.NEAREST) {
+            lookAtNearestViewer(config);
+        } else {
+            lookAtEachViewer(config);
+        }
+    }
+
+    /**
+     * Make NPC look at the nearest viewer.
+     * The rotation is computed once and the same rotation is sent to every viewer.
+     */
+    private void lookAtNearestViewer(NPCConfig config) {
         Location3dc npcLoc = entity.getLocation();
+        List<Player> players = collectViewers(config);
+        if (players.isEmpty()) return;
+
+        Location3dc nearestLoc = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (Player player : players) {
+            Location3dc playerLoc = player.getControlledEntity().getLocation();
+            double dx = playerLoc.x() - npcLoc.x();
+            double dy = playerLoc.y() - npcLoc.y();
+            double dz = playerLoc.z() - npcLoc.z();
+            double distance = dx * dx + dy * dy + dz * dz;
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearestLoc = playerLoc;
+            }
+        }
+
+        // Calculate direction from NPC to player (at eye level)
+        double dx = nearestLoc.x() - npcLoc.x();
+        double dy = (nearestLoc.y() + 1.62) - (npcLoc.y() + 1.62);
+        double dz = nearestLoc.z() - npcLoc.z();
+        double yaw = RotationUtil.yaw(dx, dz);
+        double pitch = RotationUtil.pitch(dx, dy, dz);
 
+        for (Player player : players) {
+            sendRotation(player, npcLoc, yaw, pitch);
+        }
+    }
+
+    /**
+     * Make NPC look at all viewers individually.
+     * Each player will see the NPC looking directly at them using WorldViewer.viewEntityLocation().
+     */
+    private void lookAtEachViewer(NPCConfig config) {
+        Location3dc npcLoc = entity.getLocation();
+
+        for (Player player : collectViewers(config)) {
+            // Calculate direction from NPC to player (at eye level)
+            Location3dc playerLoc = player.getControlledEntity().getLocation();
+            double dx = playerLoc.x() - npcLoc.x();
+            double dy = (playerLoc.y() + 1.62) - (npcLoc.y() + 1.62);
+            double dz = playerLoc.z() - npcLoc.z();
+            sendRotation(player, npcLoc, RotationUtil.yaw(dx, dz), RotationUtil.pitch(dx, dy, dz));
+        }
+    }
+
+    /**
+     * Collect viewers that are players with a controlled entity and, if line of sight
+     * culling is enabled, can see the NPC. Forgets state kept for players that no longer view the NPC.
+     *
+     * @param config config snapshot of the caller
+     * @return viewing players
+     */
+    private List<Player> collectViewers(NPCConfig config) {
         // Copy viewers to avoid ConcurrentModificationException during iteration
-        List<WorldViewer> viewers = new ArrayList<>(entity.getViewers());
+        Set<WorldViewer> viewers = new HashSet<>(entity.getViewers());
+        List<Player> players = new ArrayList<>(viewers.size());
 
         for (var viewer : viewers) {
             // viewer is WorldViewer (Player), not EntityPlayer
             // Need to get the controlled EntityPlayer from Player
             if (!(viewer instanceof Player player)) continue;
+            if (player.getControlledEntity() == null) continue;
+            players.add(player);
+        }
 
-            EntityPlayer playerEntity = player.getControlledEntity();
-            if (playerEntity == null) continue;
-
-            try {
-                Location3dc playerLoc = playerEntity.getLocation();
-
-                // Calculate direction vector from NPC to player (at eye level)
-                Vector3d direction = new Vector3d(
-                        playerLoc.x() - npcLoc.x(),
-                        (playerLoc.y() + 1.62) - (npcLoc.y() + 1.62),
-                        playerLoc.z() - npcLoc.z()
-                );
-
-                // Use MathUtils for yaw/pitch calculation
-                double yaw = MathUtils.getYawFromVector(direction);
-                double pitch = MathUtils.getPitchFromVector(direction);
+        // A viewer that despawned the NPC sees its spawn rotation again when it comes back
+        if (!sentRotations.isEmpty()) {
+            sentRotations.keySet().retainAll(viewers);
+        }
+        lineOfSight.retain(viewers);
 
-                // Create location with updated rotation for this specific viewer
-                Location3d viewLocation = new Location3d(
-                        npcLoc.x(), npcLoc.y(), npcLoc.z(),
-                        pitch, yaw,
-                        npcLoc.dimension()
-                );
+        // Players behind walls get neither look-at nor emote packets
+        if (config.isLineOfSight()) {
+            Location3dc npcLoc = entity.getLocation();
+            players.removeIf(player -> !lineOfSight.canSee(player, npcLoc, config.getScale()));
+        }
+        return players;
+    }
 
-                // Send individualized location to this viewer only
-                player.viewEntityLocation(entity, new Location3d(npcLoc), viewLocation, false);
+    /**
+     * Send a rotation to one viewer, unless it moved less than {@link #ROTATION_EPSILON} since the last one.
+     * This is the regular movement update of viewEntityLocation, the API has no head-only update.
+     *
+     * @param player viewer
+     * @param npcLoc NPC location
+     * @param yaw    new yaw
+     * @param pitch  new pitch
+     */
+    private void sendRotation(Player player, Location3dc npcLoc, double yaw, double pitch) {
+        double[] sent = sentRotations.get(player);
+        if (sent != null && Math.abs(yaw - sent[0]) < ROTATION_EPSILON && Math.abs(pitch - sent[1]) < ROTATION_EPSILON) {
+            LOOK_UPDATES_SKIPPED.increment();
+            return;
+        }
 
-            } catch (Exception e) {
-                log.warn("Failed to update look direction for viewer {} on NPC {}", player.getOriginName(), config.getName(), e);
+        try {
+            // Without a previous rotation the viewer still sees the rotation the NPC was spawned with
+            Location3d fromLocation = sent == null
+                    ? new Location3d(npcLoc)
+                    : new Location3d(npcLoc.x(), npcLoc.y(), npcLoc.z(), sent[1], sent[0], npcLoc.dimension());
+            Location3d viewLocation = new Location3d(
+                    npcLoc.x(), npcLoc.y(), npcLoc.z(),
+                    pitch, yaw,
+                    npcLoc.dimension()
+            );
+
+            // Send rotation to this viewer only
+            player.viewEntityLocation(entity, fromLocation, viewLocation, false);
+            if (sent == null) {
+                sentRotations.put(player, new double[]{yaw, pitch});
+            } else {
+                sent[0] = yaw;
+                sent[1] = pitch;
             }
+            LOOK_UPDATES_SENT.increment();
+        } catch (Exception e) {
+            log.warn("Failed to update look direction for viewer {} on NPC {}", player.getOriginName(), config.getName(), e);
         }
     }
 
+    /**
+     * Get number of look updates sent since startup
+     */
+    public static long getLookUpdatesSent() {
+        return LOOK_UPDATES_SENT.sum();
+    }
+
+    /**
+     * Get number of look updates skipped because the viewer's rotation was unchanged
+     */
+    public static long getLookUpdatesSkipped() {
+        return LOOK_UPDATES_SKIPPED.sum();
+    }
+
     /**
      * Check if NPC is spawned
      *
      * @return true if spawned
      */
     public boolean isSpawned() {
-        return entity != null && entity.isSpawned();
+        if (entity == null) return false;
+        // Virtual NPCs exist as long as they were created, they are never added to the world
+        return config.isVirtual() || entity.isSpawned();
     }
 
     /**
@@ -573,7 +1102,8 @@ public class NPC {
      * Get NPC world name
      */
     public String getWorldName() {
-        return config.getPosition() != null ? config.getPosition().getWorld() : "";
+        NPCConfig.PositionConfig pos = config.getPosition();
+        return pos != null ? pos.getWorld() : "";
     }
 
     /**
@@ -581,20 +1111,58 @@ public class NPC {
      */
     @Nullable
     public Vector3d getPosition() {
-        return config.getPosition() != null ? config.getPosition().toVector3d() : null;
+        NPCConfig.PositionConfig pos = config.getPosition();
+        return pos != null ? pos.toVector3d() : null;
     }
 
     /**
      * Get NPC chunk X coordinate
      */
     public int getChunkX() {
-        return config.getPosition() != null ? config.getPosition().getChunkX() : 0;
+        NPCConfig.PositionConfig pos = config.getPosition();
+        return pos != null ? pos.getChunkX() : 0;
     }
 
     /**
      * Get NPC chunk Z coordinate
      */
     public int getChunkZ() {
-        return config.getPosition() != null ? config.getPosition().getChunkZ() : 0;
+        NPCConfig.PositionConfig pos = config.getPosition();
+        return pos != null ? pos.getChunkZ() : 0;
+    }
+
+    /**
+     * How the NPC is updated over time
+     */
+    public enum UpdateMode {
+        /**
+         * No dynamic features, nothing is scheduled
+         */
+        STATIC,
+        /**
+         * Update task running
+         */
+        ACTIVE,
+        /**
+         * No viewers, only a slow viewer probe is running
+         */
+        SUSPENDED
+    }
+
+    /**
+     * Cancellable owner of a scheduled update task
+     */
+    private static final class UpdateTask implements TaskCreator {
+
+        private volatile boolean cancelled = false;
+
+        private void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isValid() {
+            return !cancelled;
+        }
     }
 }
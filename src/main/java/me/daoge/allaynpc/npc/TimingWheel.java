@@ -0,0 +1,122 @@
+package me.daoge.allaynpc.npc;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Timing wheel
+ * Hashed wheel of 512 slots, items further away than one revolution count down rounds in their slot.
+ * Not thread-safe, owned by a single thread.
+ *
+ * @param <T> scheduled item type
+ * @author daoge_cmd
+ */
+final class TimingWheel<T> {
+
+    /**
+     * Number of slots, must be a power of two
+     */
+    static final int WHEEL_SIZE = 512;
+
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final int WHEEL_BITS = Integer.numberOfTrailingZeros(WHEEL_SIZE);
+
+    /**
+     * Wheel slots
+     */
+    private final List<List<Node<T>>> slots = new ArrayList<>(WHEEL_SIZE);
+
+    /**
+     * Tells whether an item was cancelled, cancelled items are dropped when their slot is visited
+     */
+    private final Predicate<T> cancelled;
+
+    /**
+     * Current wheel tick
+     */
+    private long currentTick = 0;
+
+    /**
+     * Number of placed items
+     */
+    private int size = 0;
+
+    /**
+     * Create timing wheel
+     *
+     * @param cancelled tells whether an item was cancelled
+     */
+    TimingWheel(Predicate<T> cancelled) {
+        this.cancelled = cancelled;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Place an item, it becomes due on the {@code delay}-th following {@link #advance()}
+     *
+     * @param item  item to place
+     * @param delay delay in ticks, at least 1
+     */
+    void place(T item, int delay) {
+        long fireTick = currentTick + delay;
+        // The slot is first visited delay % 512 ticks from now, or a full revolution from now if that is 0,
+        // so the remaining full revolutions are (delay - 1) / 512
+        slots.get((int) (fireTick & WHEEL_MASK)).add(new Node<>(item, (delay - 1) >> WHEEL_BITS));
+        size++;
+    }
+
+    /**
+     * Advance the wheel by one tick
+     *
+     * @return due items, empty if none
+     */
+    List<T> advance() {
+        currentTick++;
+
+        List<Node<T>> slot = slots.get((int) (currentTick & WHEEL_MASK));
+        if (slot.isEmpty()) {
+            return List.of();
+        }
+
+        List<T> due = null;
+        Iterator<Node<T>> iterator = slot.iterator();
+        while (iterator.hasNext()) {
+            Node<T> node = iterator.next();
+            if (cancelled.test(node.item)) {
+                iterator.remove();
+                size--;
+            } else if (node.rounds > 0) {
+                node.rounds--;
+            } else {
+                iterator.remove();
+                size--;
+                if (due == null) due = new ArrayList<>();
+                due.add(node.item);
+            }
+        }
+        return due == null ? List.of() : due;
+    }
+
+    /**
+     * Get number of placed items, including cancelled items not yet dropped
+     */
+    int size() {
+        return size;
+    }
+
+    private static final class Node<T> {
+
+        private final T item;
+        private int rounds;
+
+        private Node(T item, int rounds) {
+            this.item = item;
+            this.rounds = rounds;
+        }
+    }
+}
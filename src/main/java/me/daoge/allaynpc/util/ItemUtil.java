@@ -0,0 +1,76 @@
+package me.daoge.allaynpc.util;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.allaymc.api.item.ItemStack;
+import org.allaymc.api.item.type.ItemType;
+import org.allaymc.api.registry.Registries;
+import org.allaymc.api.utils.identifier.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Item utility class
+ * Resolves item IDs to item types once and remembers the result, including invalid IDs,
+ * so spawning many NPCs with the same equipment does not repeat registry lookups or warnings.
+ *
+ * @author daoge_cmd
+ */
+@Slf4j
+@UtilityClass
+public class ItemUtil {
+
+    /**
+     * Resolved item types (item ID -> item type, empty if invalid)
+     */
+    private static final Map<String, Optional<ItemType<?>>> ITEM_TYPES = new ConcurrentHashMap<>();
+
+    /**
+     * Resolve an item ID
+     *
+     * @param itemId item ID, e.g. minecraft:diamond_sword
+     * @return item type, null if the ID is empty or invalid
+     */
+    @Nullable
+    public static ItemType<?> resolve(String itemId) {
+        if (itemId == null || itemId.isEmpty()) {
+            return null;
+        }
+        return ITEM_TYPES.computeIfAbsent(itemId, ItemUtil::lookup).orElse(null);
+    }
+
+    /**
+     * Create a single item of the given ID.
+     * Stacks are mutable container contents, so every NPC gets its own.
+     *
+     * @param itemId item ID
+     * @return new item stack, null if the ID is empty or invalid
+     */
+    @Nullable
+    public static ItemStack createItemStack(String itemId) {
+        ItemType<?> itemType = resolve(itemId);
+        return itemType != null ? itemType.createItemStack(1) : null;
+    }
+
+    /**
+     * Forget resolved IDs, invalid IDs are reported again on next use
+     */
+    public static void clearCache() {
+        ITEM_TYPES.clear();
+    }
+
+    private static Optional<ItemType<?>> lookup(String itemId) {
+        try {
+            ItemType<?> itemType = Registries.ITEMS.get(new Identifier(itemId));
+            if (itemType != null) {
+                return Optional.of(itemType);
+            }
+        } catch (Exception ignored) {
+        }
+        log.warn("Invalid item ID: {}", itemId);
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,38 @@
+package me.daoge.allaynpc.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Rotation utility class
+ * Computes look-at yaw/pitch from direction vectors
+ *
+ * @author daoge_cmd
+ */
+@UtilityClass
+public class RotationUtil {
+
+    private static final double RAD_TO_DEG = 180.0 / Math.PI;
+
+    /**
+     * Compute yaw looking along a direction
+     *
+     * @param dx direction x
+     * @param dz direction z
+     * @return yaw in degrees
+     */
+    public static double yaw(double dx, double dz) {
+        return Math.atan2(-dx, dz) * RAD_TO_DEG;
+    }
+
+    /**
+     * Compute pitch looking along a direction
+     *
+     * @param dx direction x
+     * @param dy direction y
+     * @param dz direction z
+     * @return pitch in degrees
+     */
+    public static double pitch(double dx, double dy, double dz) {
+        return -Math.atan2(dy, Math.sqrt(dx * dx + dz * dz)) * RAD_TO_DEG;
+    }
+}
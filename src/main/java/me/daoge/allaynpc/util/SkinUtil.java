@@ -16,7 +16,9 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Skin utility class
@@ -35,6 +37,11 @@ public class SkinUtil {
     private static final String GEOMETRY_CUSTOM_SLIM = "{\"geometry\":{\"default\":\"geometry.humanoid.customSlim\"}}";
     private static final String DEFAULT_SKIN_COLOR = "#0";
 
+    /**
+     * Resource patches of custom geometries (geometry name -> resource patch)
+     */
+    private static final Map<String, String> RESOURCE_PATCHES = new ConcurrentHashMap<>();
+
     /**
      * Load skin from folder
      */
@@ -180,17 +187,21 @@ public class SkinUtil {
         }
 
         try {
-            String customGeometry = Files.readString(skinJson);
-            String formatVersion = parseFormatVersion(customGeometry);
-            String geometryName = parseGeometryName(customGeometry, formatVersion);
+            JsonObject json = JsonParser.parseString(Files.readString(skinJson)).getAsJsonObject();
+            String formatVersion = parseFormatVersion(json);
+            String geometryName = parseGeometryName(json, formatVersion);
 
             if (geometryName == null) {
                 return null;
             }
 
-            String resourcePatch = "{\"geometry\":{\"default\":\"" + geometryName + "\"}}";
+            String resourcePatch = RESOURCE_PATCHES.computeIfAbsent(geometryName,
+                    name -> "{\"geometry\":{\"default\":\"" + name + "\"}}");
             String skinId = generateSkinId(skinData, resourcePatch, skinName);
 
+            // Minify once, the geometry stays in memory and is sent to every viewer
+            String customGeometry = json.toString();
+
             log.debug("Loaded 4D skin geometry for {}: {} (version: {})", skinName, geometryName, formatVersion);
             return new GeometryInfo(skinId, resourcePatch, customGeometry, formatVersion);
         } catch (Exception e) {
@@ -200,10 +211,8 @@ public class SkinUtil {
     }
 
     @Nullable
-    private static String parseGeometryName(String geometryData, String formatVersion) {
+    private static String parseGeometryName(JsonObject json, String formatVersion) {
         try {
-            JsonObject json = JsonParser.parseString(geometryData).getAsJsonObject();
-
             return switch (formatVersion) {
                 case "1.12.0", "1.16.0" -> parseModernGeometryName(json);
                 default -> parseLegacyGeometryName(json);
@@ -248,9 +257,8 @@ public class SkinUtil {
         return null;
     }
 
-    private static String parseFormatVersion(String geometryData) {
+    private static String parseFormatVersion(JsonObject json) {
         try {
-            JsonObject json = JsonParser.parseString(geometryData).getAsJsonObject();
             if (json.has("format_version")) {
                 return json.get("format_version").getAsString();
             }
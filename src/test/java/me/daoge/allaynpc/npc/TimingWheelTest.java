@@ -0,0 +1,74 @@
+package me.daoge.allaynpc.npc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class TimingWheelTest {
+
+    @Test
+    void firesAfterExactDelay() {
+        for (int delay : new int[]{1, 2, 511, 513, 1000}) {
+            assertEquals(delay, ticksUntilDue(delay), "delay " + delay);
+        }
+    }
+
+    @Test
+    void fullRevolutionDoesNotFireEarly() {
+        assertEquals(512, ticksUntilDue(512));
+        assertEquals(1024, ticksUntilDue(1024));
+    }
+
+    @Test
+    void rescheduledFullRevolutionFiresOncePerInterval() {
+        TimingWheel<String> wheel = new TimingWheel<>(item -> false);
+        wheel.place("emote", 512);
+
+        List<Integer> fired = new ArrayList<>();
+        for (int tick = 1; tick <= 512 * 3; tick++) {
+            for (String item : wheel.advance()) {
+                fired.add(tick);
+                wheel.place(item, 512);
+            }
+        }
+        assertEquals(List.of(512, 1024, 1536), fired);
+    }
+
+    @Test
+    void cancelledItemsAreDropped() {
+        Set<String> cancelled = new HashSet<>();
+        TimingWheel<String> wheel = new TimingWheel<>(cancelled::contains);
+        wheel.place("kept", 3);
+        wheel.place("cancelled", 3);
+        cancelled.add("cancelled");
+
+        wheel.advance();
+        wheel.advance();
+        assertEquals(List.of("kept"), wheel.advance());
+        assertEquals(0, wheel.size());
+    }
+
+    private static int ticksUntilDue(int delay) {
+        TimingWheel<String> wheel = new TimingWheel<>(item -> false);
+        // Start mid-revolution so the result does not depend on slot 0
+        for (int i = 0; i < 100; i++) {
+            wheel.advance();
+        }
+        wheel.place("emote", delay);
+
+        for (int tick = 1; tick <= delay * 2; tick++) {
+            List<String> due = wheel.advance();
+            if (!due.isEmpty()) {
+                assertEquals(List.of("emote"), due);
+                return tick;
+            }
+        }
+        return fail("never fired");
+    }
+}